@@ -0,0 +1,43 @@
+package bo.edu.ucb.microservices.dto.notification;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Resultado de una tanda de reenvío de eventos desde la cola de mensajes muertos (DLQ)")
+public class DeadLetterReplayResultDto {
+
+    @Schema(description = "Cantidad máxima de eventos solicitada", example = "100")
+    private int requested;
+
+    @Schema(description = "Cantidad de eventos reenviados al destino principal", example = "42")
+    private int replayed;
+
+    public DeadLetterReplayResultDto() {
+        // Constructor vacío requerido por frameworks como Jackson
+    }
+
+    public DeadLetterReplayResultDto(int requested, int replayed) {
+        this.requested = requested;
+        this.replayed = replayed;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public void setRequested(int requested) {
+        this.requested = requested;
+    }
+
+    public int getReplayed() {
+        return replayed;
+    }
+
+    public void setReplayed(int replayed) {
+        this.replayed = replayed;
+    }
+
+    @Override
+    public String toString() {
+        return "DeadLetterReplayResultDto [requested=" + requested + ", replayed=" + replayed + "]";
+    }
+}
@@ -0,0 +1,57 @@
+package bo.edu.ucb.microservices.dto.notification;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Criterios para eliminar varias notificaciones en una sola operación. Se eliminan las que cumplan todos los criterios indicados")
+public class NotificationBulkDeleteDto {
+
+    @Schema(description = "IDs de negocio de las notificaciones a eliminar", example = "[101, 102, 103]")
+    private List<Integer> notificationIds;
+
+    @Schema(description = "Elimina las notificaciones de este usuario", example = "7")
+    private Integer userId;
+
+    @Schema(description = "Elimina las notificaciones con este estado", example = "LEIDO")
+    private String status;
+
+    public NotificationBulkDeleteDto() {
+        // Constructor vacío requerido por frameworks como Jackson
+    }
+
+    public NotificationBulkDeleteDto(List<Integer> notificationIds, Integer userId, String status) {
+        this.notificationIds = notificationIds;
+        this.userId = userId;
+        this.status = status;
+    }
+
+    public List<Integer> getNotificationIds() {
+        return notificationIds;
+    }
+
+    public void setNotificationIds(List<Integer> notificationIds) {
+        this.notificationIds = notificationIds;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Integer userId) {
+        this.userId = userId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    @Override
+    public String toString() {
+        return "NotificationBulkDeleteDto [notificationIds=" + notificationIds + ", userId=" + userId + ", status=" + status + "]";
+    }
+}
@@ -0,0 +1,31 @@
+package bo.edu.ucb.microservices.dto.notification;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Resultado de una eliminación masiva de notificaciones")
+public class NotificationBulkDeleteResultDto {
+
+    @Schema(description = "Cantidad de notificaciones eliminadas", example = "3")
+    private long deletedCount;
+
+    public NotificationBulkDeleteResultDto() {
+        // Constructor vacío requerido por frameworks como Jackson
+    }
+
+    public NotificationBulkDeleteResultDto(long deletedCount) {
+        this.deletedCount = deletedCount;
+    }
+
+    public long getDeletedCount() {
+        return deletedCount;
+    }
+
+    public void setDeletedCount(long deletedCount) {
+        this.deletedCount = deletedCount;
+    }
+
+    @Override
+    public String toString() {
+        return "NotificationBulkDeleteResultDto [deletedCount=" + deletedCount + "]";
+    }
+}
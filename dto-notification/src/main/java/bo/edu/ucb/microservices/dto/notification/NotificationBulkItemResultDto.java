@@ -0,0 +1,68 @@
+package bo.edu.ucb.microservices.dto.notification;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Resultado de un elemento dentro de una carga masiva de notificaciones")
+public class NotificationBulkItemResultDto {
+
+    @Schema(description = "Posición del elemento en la carga, desde 0", example = "0")
+    private long index;
+
+    @Schema(description = "ID de negocio de la notificación", example = "101")
+    private int notificationId;
+
+    @Schema(description = "Resultado: CREATED, DUPLICATE_KEY, INVALID o FAILED", example = "CREATED")
+    private String result;
+
+    @Schema(description = "Detalle del error cuando no se pudo crear", example = "El título es obligatorio")
+    private String message;
+
+    public NotificationBulkItemResultDto() {
+        // Constructor vacío requerido por frameworks como Jackson
+    }
+
+    public NotificationBulkItemResultDto(long index, int notificationId, String result, String message) {
+        this.index = index;
+        this.notificationId = notificationId;
+        this.result = result;
+        this.message = message;
+    }
+
+    public long getIndex() {
+        return index;
+    }
+
+    public void setIndex(long index) {
+        this.index = index;
+    }
+
+    public int getNotificationId() {
+        return notificationId;
+    }
+
+    public void setNotificationId(int notificationId) {
+        this.notificationId = notificationId;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public void setResult(String result) {
+        this.result = result;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    @Override
+    public String toString() {
+        return "NotificationBulkItemResultDto [index=" + index + ", notificationId=" + notificationId + ", result=" + result
+                + ", message=" + message + "]";
+    }
+}
@@ -0,0 +1,70 @@
+package bo.edu.ucb.microservices.dto.notification;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Map;
+
+@Schema(description = "Contadores de notificaciones de un usuario")
+public class NotificationCountsDto {
+
+    @Schema(description = "ID del usuario", example = "7")
+    private int userId;
+
+    @Schema(description = "Cantidad total de notificaciones del usuario", example = "12")
+    private long total;
+
+    @Schema(description = "Cantidad de notificaciones sin leer", example = "3")
+    private long unread;
+
+    @Schema(description = "Cantidad de notificaciones por estado", example = "{\"ENVIADO\": 3, \"LEIDO\": 9}")
+    private Map<String, Long> byStatus;
+
+    public NotificationCountsDto() {
+        // Constructor vacío requerido por frameworks como Jackson
+    }
+
+    public NotificationCountsDto(int userId, long total, long unread, Map<String, Long> byStatus) {
+        this.userId = userId;
+        this.total = total;
+        this.unread = unread;
+        this.byStatus = byStatus;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public long getUnread() {
+        return unread;
+    }
+
+    public void setUnread(long unread) {
+        this.unread = unread;
+    }
+
+    public Map<String, Long> getByStatus() {
+        return byStatus;
+    }
+
+    public void setByStatus(Map<String, Long> byStatus) {
+        this.byStatus = byStatus;
+    }
+
+    @Override
+    public String toString() {
+        return "NotificationCountsDto [userId=" + userId + ", total=" + total + ", unread=" + unread
+                + ", byStatus=" + byStatus + "]";
+    }
+}
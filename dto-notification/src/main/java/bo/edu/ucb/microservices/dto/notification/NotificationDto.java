@@ -20,6 +20,12 @@ public class NotificationDto {
     @Schema(description = "Contenido o mensaje de la notificación", example = "Recuerde devolver el libro antes del 30/08/2025")
     private String mensaje;
 
+    @Schema(description = "ID del usuario destinatario de la notificación", example = "7")
+    private Integer userId;
+
+    @Schema(description = "Estado de la notificación (ENVIADO, LEIDO, ARCHIVADO, ...)", example = "ENVIADO")
+    private String status;
+
     // --- AÑADIDO: Campo para la dirección del servicio ---
     @Schema(description = "Dirección del microservicio que procesó la solicitud", example = "127.0.0.1:8081")
     private String serviceAddress;
@@ -61,6 +67,22 @@ public class NotificationDto {
         this.mensaje = mensaje;
     }
 
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Integer userId) {
+        this.userId = userId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
     // --- AÑADIDO: Getter y Setter para serviceAddress ---
 
     public String getServiceAddress() {
@@ -74,6 +96,7 @@ public class NotificationDto {
 
     @Override
     public String toString() {
-        return "NotificationDto [notificationId=" + notificationId + ", titulo=" + titulo + ", mensaje=" + mensaje + "]";
+        return "NotificationDto [notificationId=" + notificationId + ", titulo=" + titulo + ", mensaje=" + mensaje
+                + ", userId=" + userId + ", status=" + status + "]";
     }
 }
\ No newline at end of file
@@ -0,0 +1,83 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.benchmarks;
+
+import bo.edu.ucb.microservices.dto.notification.NotificationDto;
+import bo.edu.ucb.microservices.util.events.Event;
+import bo.edu.ucb.microservices.util.events.EventCborMessageConverter;
+import bo.edu.ucb.microservices.util.http.HttpErrorInfo;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ida y vuelta JSON (serializar + deserializar) de los tipos que viajan por HTTP y por el broker,
+ * con un ObjectMapper configurado como el de Spring Boot. Los eventos se miden también en CBOR,
+ * con el ObjectMapper de {@link EventCborMessageConverter}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonRoundTripBenchmark {
+
+    private ObjectMapper objectMapper;
+    private JavaType eventType;
+    private ObjectMapper cborMapper;
+
+    private NotificationDto dto;
+    private Event<Integer, NotificationDto> event;
+    private HttpErrorInfo errorInfo;
+
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        eventType = objectMapper.getTypeFactory().constructType(new TypeReference<Event<Integer, NotificationDto>>() {
+        });
+
+        cborMapper = new EventCborMessageConverter().getObjectMapper();
+
+        dto = new NotificationDto(101, "Devolución pendiente", "El libro debe devolverse mañana");
+        dto.setUserId(7);
+        dto.setStatus("ENVIADO");
+        dto.setServiceAddress("ms-notification/172.18.0.5:8080");
+        event = new Event<>(Event.Type.CREATE, 101, dto);
+        errorInfo = new HttpErrorInfo(HttpStatus.NOT_FOUND, "/v1/notification/999",
+                "No se encontró notificación para notificationId: 999");
+    }
+
+    @Benchmark
+    public NotificationDto notificationDto() throws IOException {
+        return objectMapper.readValue(objectMapper.writeValueAsBytes(dto), NotificationDto.class);
+    }
+
+    @Benchmark
+    public Event<Integer, NotificationDto> event() throws IOException {
+        return objectMapper.readValue(objectMapper.writeValueAsBytes(event), eventType);
+    }
+
+    @Benchmark
+    public Event<Integer, NotificationDto> eventCbor() throws IOException {
+        return cborMapper.readValue(cborMapper.writeValueAsBytes(event), eventType);
+    }
+
+    @Benchmark
+    public HttpErrorInfo httpErrorInfo() throws IOException {
+        return objectMapper.readValue(objectMapper.writeValueAsBytes(errorInfo), HttpErrorInfo.class);
+    }
+}
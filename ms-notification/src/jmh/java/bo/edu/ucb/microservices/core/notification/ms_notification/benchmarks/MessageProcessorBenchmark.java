@@ -0,0 +1,93 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.benchmarks;
+
+import bo.edu.ucb.microservices.core.notification.ms_notification.config.MessageProcessorConfig;
+import bo.edu.ucb.microservices.core.notification.ms_notification.controller.NotificationServiceController;
+import bo.edu.ucb.microservices.core.notification.ms_notification.logging.SampledLogger;
+import bo.edu.ucb.microservices.core.notification.ms_notification.messaging.AdaptiveConcurrencyLimiter;
+import bo.edu.ucb.microservices.core.notification.ms_notification.messaging.FailedEventRouter;
+import bo.edu.ucb.microservices.core.notification.ms_notification.messaging.InFlightEvents;
+import bo.edu.ucb.microservices.core.notification.ms_notification.messaging.ProcessedEventStore;
+import bo.edu.ucb.microservices.core.notification.ms_notification.metrics.NotificationMetrics;
+import bo.edu.ucb.microservices.dto.notification.NotificationDto;
+import bo.edu.ucb.microservices.util.events.Event;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * messageProcessor alimentado con un Flux en memoria: carriles por clave, deduplicación en memoria,
+ * métricas y despacho por tipo de evento. Las escrituras se reemplazan por un controlador que responde
+ * de inmediato, así solo se mide el costo propio del consumidor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageProcessorBenchmark {
+
+    private static final int EVENTS = 1000;
+
+    @Param({"1", "4"})
+    int lanes;
+
+    private Function<Flux<Event<Integer, NotificationDto>>, Flux<Void>> messageProcessor;
+    private int nextKey;
+
+    @Setup
+    public void setup() {
+        NotificationServiceController controller = new NotificationServiceController(null, null) {
+            @Override
+            public Mono<NotificationDto> createNotification(NotificationDto dto) {
+                return Mono.just(dto);
+            }
+
+            @Override
+            public Mono<Void> deleteNotificationByBusinessId(int notificationId) {
+                return Mono.empty();
+            }
+        };
+        ProcessedEventStore processedEvents = new ProcessedEventStore(null, true, 100_000, 30, false, 168);
+
+        MessageProcessorConfig config = new MessageProcessorConfig(controller, null, processedEvents,
+                new NotificationMetrics(new SimpleMeterRegistry()), new SampledLogger(0),
+                new FailedEventRouter(null, false, "notifications.retry", List.of(), "notifications.dlq"),
+                new InFlightEvents(), new AdaptiveConcurrencyLimiter(null, true, 512, 1, 512, 250, 0.9));
+        ReflectionTestUtils.setField(config, "laneCount", lanes);
+        ReflectionTestUtils.setField(config, "laneQueueDepth", 32);
+        messageProcessor = config.messageProcessor();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void processEvents() {
+        // Claves nuevas en cada invocación para que la deduplicación no descarte los eventos.
+        List<Event<Integer, NotificationDto>> events = new ArrayList<>(EVENTS);
+        for (int i = 0; i < EVENTS; i++) {
+            int key = ++nextKey;
+            events.add(i % 4 == 3
+                    ? new Event<>(Event.Type.DELETE, key - 1, null)
+                    : new Event<>(Event.Type.CREATE, key, new NotificationDto(key, "Título " + key, "Mensaje " + key)));
+        }
+        messageProcessor.apply(Flux.fromIterable(events)).blockLast();
+    }
+}
@@ -0,0 +1,63 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.benchmarks;
+
+import bo.edu.ucb.microservices.core.notification.ms_notification.mapper.NotificationMapper;
+import bo.edu.ucb.microservices.core.notification.ms_notification.mapper.NotificationMapperImpl;
+import bo.edu.ucb.microservices.core.notification.ms_notification.model.Notification;
+import bo.edu.ucb.microservices.core.notification.ms_notification.model.NotificationView;
+import bo.edu.ucb.microservices.dto.notification.NotificationDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapeos de la ruta de lectura y escritura: la implementación generada por MapStruct y la vista
+ * proyectada que usan las lecturas por ID (con -prof gc se ve también la diferencia de asignaciones).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotificationMapperBenchmark {
+
+    private final NotificationMapper mapper = new NotificationMapperImpl();
+
+    private Notification entity;
+    private NotificationDto dto;
+    private NotificationView view;
+
+    @Setup
+    public void setup() {
+        entity = new Notification(101, "Devolución pendiente", "El libro debe devolverse mañana", 7, "ENVIADO", new Date());
+        entity.setId("6724b1a434c3a3795388a10d");
+        entity.setVersion(3);
+        dto = mapper.entityToDto(entity);
+        view = NotificationView.from(entity);
+    }
+
+    @Benchmark
+    public NotificationDto entityToDto() {
+        return mapper.entityToDto(entity);
+    }
+
+    @Benchmark
+    public Notification dtoToEntity() {
+        return mapper.dtoToEntity(dto);
+    }
+
+    @Benchmark
+    public NotificationDto viewToDto() {
+        return view.toDto();
+    }
+}
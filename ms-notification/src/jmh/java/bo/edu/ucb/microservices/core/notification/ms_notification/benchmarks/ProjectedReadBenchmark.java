@@ -0,0 +1,76 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.benchmarks;
+
+import bo.edu.ucb.microservices.core.notification.ms_notification.mapper.NotificationMapper;
+import bo.edu.ucb.microservices.core.notification.ms_notification.mapper.NotificationMapperImpl;
+import bo.edu.ucb.microservices.core.notification.ms_notification.model.Notification;
+import bo.edu.ucb.microservices.core.notification.ms_notification.model.NotificationView;
+import bo.edu.ucb.microservices.dto.notification.NotificationDto;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lectura por ID desde el documento de MongoDB hasta el DTO, con el mismo conversor que usa Spring Data:
+ * el documento completo pasa por la entidad y MapStruct; el proyectado (solo los campos de
+ * {@link NotificationView}) se lee directo a la vista. Con -prof gc se ven las asignaciones de cada ruta.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProjectedReadBenchmark {
+
+    private final NotificationMapper mapper = new NotificationMapperImpl();
+
+    private MappingMongoConverter converter;
+    private Document fullDocument;
+    private Document projectedDocument;
+
+    @Setup
+    public void setup() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setInitialEntitySet(Set.of(Notification.class));
+        mappingContext.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.afterPropertiesSet();
+
+        projectedDocument = new Document("_id", new ObjectId("6724b1a434c3a3795388a10d"))
+                .append("version", 3)
+                .append("notificationId", 101)
+                .append("titulo", "Devolución pendiente")
+                .append("mensaje", "El libro debe devolverse mañana")
+                .append("userId", 7)
+                .append("status", "ENVIADO");
+        fullDocument = new Document(projectedDocument)
+                .append("creationDate", new Date())
+                .append("_class", Notification.class.getName());
+    }
+
+    @Benchmark
+    public NotificationDto fullEntity() {
+        return mapper.entityToDto(converter.read(Notification.class, fullDocument));
+    }
+
+    @Benchmark
+    public NotificationDto projectedView() {
+        return converter.read(NotificationView.class, projectedDocument).toDto();
+    }
+}
@@ -1,22 +1,11 @@
 package bo.edu.ucb.microservices.core.notification.ms_notification;
 
-import bo.edu.ucb.microservices.core.notification.ms_notification.model.Notification;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.ComponentScan;
-import org.springframework.context.event.ContextRefreshedEvent;
-import org.springframework.context.event.EventListener;
-import org.springframework.data.mapping.context.MappingContext;
-import org.springframework.data.mongodb.core.ReactiveMongoOperations; // CAMBIO: Import reactivo
-import org.springframework.data.mongodb.core.index.IndexResolver;
-import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
-import org.springframework.data.mongodb.core.index.ReactiveIndexOperations; // CAMBIO: Import reactivo
-import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
-import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
 
 @SpringBootApplication
 @ComponentScan({
@@ -36,20 +25,6 @@ public class NotificationServiceApplication {
         LOGGER.info("---- Connected to MongoDb: {}:{} ----", mongoHost, mongoPort);
     }
 
-    // CAMBIO: Se inyecta la versión REACTIVA de MongoOperations
-    @Autowired
-    ReactiveMongoOperations mongoTemplate;
-
-    @EventListener(ContextRefreshedEvent.class)
-    public void initIndicesAfterStartup() {
-        LOGGER.info("---- Ensuring MongoDB indexes are created ----");
-
-        MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> mappingContext = mongoTemplate
-                .getConverter().getMappingContext();
-        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
-
-        // CAMBIO: Se usa la versión REACTIVA de IndexOperations y se llama a .block()
-        ReactiveIndexOperations indexOps = mongoTemplate.indexOps(Notification.class);
-        resolver.resolveIndexFor(Notification.class).forEach(index -> indexOps.ensureIndex(index).block());
-    }
-}
\ No newline at end of file
+    // CAMBIO: La creación de índices se movió a config.MongoIndexInitializer, que los crea en paralelo
+    // sin bloquear y marca la instancia como no lista (readiness) hasta terminar.
+}
@@ -1,16 +1,34 @@
 package bo.edu.ucb.microservices.core.notification.ms_notification.config;
 
 import bo.edu.ucb.microservices.core.notification.ms_notification.controller.NotificationServiceController;
+import bo.edu.ucb.microservices.core.notification.ms_notification.logging.SampledLogger;
+import bo.edu.ucb.microservices.core.notification.ms_notification.messaging.AdaptiveConcurrencyLimiter;
+import bo.edu.ucb.microservices.core.notification.ms_notification.messaging.FailedEventRouter;
+import bo.edu.ucb.microservices.core.notification.ms_notification.messaging.InFlightEvents;
+import bo.edu.ucb.microservices.core.notification.ms_notification.messaging.KeyedLaneScheduler;
+import bo.edu.ucb.microservices.core.notification.ms_notification.messaging.ProcessedEventStore;
+import bo.edu.ucb.microservices.core.notification.ms_notification.metrics.NotificationMetrics;
+import bo.edu.ucb.microservices.core.notification.ms_notification.repository.NotificationBulkResult;
+import bo.edu.ucb.microservices.core.notification.ms_notification.services.NotificationService;
 import bo.edu.ucb.microservices.dto.notification.NotificationDto;
 import bo.edu.ucb.microservices.util.events.Event;
+import bo.edu.ucb.microservices.util.events.EventCborMessageConverter;
 import bo.edu.ucb.microservices.util.exceptions.EventProcessingException;
+import bo.edu.ucb.microservices.util.exceptions.InvalidInputException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MessageConverter;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Function;
 
 @Configuration
@@ -19,39 +37,255 @@ public class MessageProcessorConfig {
     private static final Logger LOGGER = LoggerFactory.getLogger(MessageProcessorConfig.class);
 
     private final NotificationServiceController notificationServiceController;
+    private final NotificationService notificationService;
+    private final ProcessedEventStore processedEvents;
+    private final NotificationMetrics metrics;
+    private final SampledLogger sampledLogger;
+    private final FailedEventRouter failedEvents;
+    private final InFlightEvents inFlightEvents;
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    // Carriles por clave: los eventos con el mismo Event.getKey() se procesan en serie y en orden,
+    // los carriles en paralelo. Cada carril toma un permiso del limitador antes de escribir, así las escrituras
+    // en curso hacia MongoDB quedan acotadas por el límite adaptativo y, como máximo, por el número de carriles.
+    @Value("${app.notification.consumer.lanes:4}")
+    int laneCount;
+
+    @Value("${app.notification.consumer.lane-queue-depth:32}")
+    int laneQueueDepth;
+
+    // Modo por lotes: agrupa eventos por tamaño o ventana de tiempo y los escribe con un único bulk write.
+    @Value("${app.notification.consumer.batch.enabled:false}")
+    boolean batchEnabled;
+
+    @Value("${app.notification.consumer.batch.size:100}")
+    int batchSize;
+
+    @Value("${app.notification.consumer.batch.window-ms:50}")
+    long batchWindowMs;
+
+    // Eventos del destino de reintentos esperando (sin bloquear) su hora de reintento o procesándose.
+    @Value("${app.notification.consumer.retry.concurrency:256}")
+    int retryConcurrency;
 
     @Autowired
-    public MessageProcessorConfig(NotificationServiceController notificationServiceController) {
+    public MessageProcessorConfig(NotificationServiceController notificationServiceController,
+                                  NotificationService notificationService,
+                                  ProcessedEventStore processedEvents,
+                                  NotificationMetrics metrics,
+                                  SampledLogger sampledLogger,
+                                  FailedEventRouter failedEvents,
+                                  InFlightEvents inFlightEvents,
+                                  AdaptiveConcurrencyLimiter limiter) {
         this.notificationServiceController = notificationServiceController;
+        this.notificationService = notificationService;
+        this.processedEvents = processedEvents;
+        this.metrics = metrics;
+        this.sampledLogger = sampledLogger;
+        this.failedEvents = failedEvents;
+        this.inFlightEvents = inFlightEvents;
+        this.limiter = limiter;
+    }
+
+    /**
+     * Conversor CBOR de los eventos. Spring Cloud Stream lo elige solo para los mensajes con content type
+     * application/vnd.ucb.event+cbor; los productores que envían application/json siguen funcionando igual.
+     * Es estático para que los conversores del binder no dependan de crear esta configuración.
+     */
+    @Bean
+    public static MessageConverter eventCborMessageConverter() {
+        return new EventCborMessageConverter();
     }
 
     @Bean("messageProcessor")
     public Function<Flux<Event<Integer, NotificationDto>>, Flux<Void>> messageProcessor() {
-        return events -> events.flatMap(event -> {
-            LOGGER.info("Procesando evento para la clave: {}", event.getKey());
-
-            try {
-                switch (event.getEventType()) {
-                    case CREATE:
-                        return notificationServiceController.createNotification(event.getData())
-                                .doOnNext(dto -> LOGGER.info("Notificación creada con ID: {}", dto.getNotificationId()))
-                                .then(); // Mono<Void> -> Flux<Void> mediante flatMap
-
-                    case DELETE:
-                        return notificationServiceController.deleteNotificationByBusinessId(event.getKey())
-                                .doOnSuccess(v -> LOGGER.info("Notificación eliminada con ID: {}", event.getKey()))
-                                .then();
-
-                    default:
-                        String errorMessage = "Tipo de evento incorrecto: " + event.getEventType() + ", se espera CREATE o DELETE";
-                        LOGGER.warn(errorMessage);
-                        return Flux.error(new EventProcessingException(errorMessage));
-                }
-            } catch (Exception e) {
-                LOGGER.error("Error procesando evento: {}", event.getKey(), e);
-                return Flux.error(e);
+        KeyedLaneScheduler lanes = new KeyedLaneScheduler(laneCount, laneQueueDepth);
+        LOGGER.info("messageProcessor con {} carriles, profundidad de cola {}", laneCount, laneQueueDepth);
+
+        if (batchEnabled) {
+            LOGGER.info("messageProcessor en modo por lotes: tamaño {}, ventana {} ms", batchSize, batchWindowMs);
+            // Cada carril arma sus propios lotes, así el orden por clave se mantiene también en este modo.
+            return events -> lanes.schedule(received(events), Event::getKey, lane -> lane
+                    .filterWhen(event -> processedEvents.isDuplicate(event)
+                            // Si no se puede consultar, se procesa: los eventos son idempotentes.
+                            .onErrorReturn(false)
+                            .map(duplicate -> {
+                                if (duplicate) {
+                                    recordEvent(event, "duplicate");
+                                    inFlightEvents.exit();
+                                }
+                                return !duplicate;
+                            }))
+                    // Backpressure justo: la ventana no emite lotes que concatMap no pidió; si no, mientras un
+                    // processBatch lento escribe, los lotes por tiempo desbordan su cola y cortan el consumidor.
+                    .bufferTimeout(batchSize, Duration.ofMillis(batchWindowMs), true)
+                    // Un lote es una sola escritura (bulk write): toma un permiso.
+                    .concatMap(batch -> withPermit(admittedAt -> processBatch(batch, admittedAt))
+                            .doFinally(signal -> inFlightEvents.exit(batch.size()))));
+        }
+        return events -> lanes.scheduleEach(received(events), Event::getKey,
+                event -> withPermit(admittedAt -> processEventOnce(event, 0, admittedAt))
+                        .doFinally(signal -> inFlightEvents.exit()));
+    }
+
+    private Flux<Event<Integer, NotificationDto>> received(Flux<Event<Integer, NotificationDto>> events) {
+        return events.doOnNext(event -> inFlightEvents.enter());
+    }
+
+    /**
+     * Toma un permiso del limitador cuando el carril va a escribir y lo devuelve al terminar. La muestra de
+     * latencia es la de la escritura, sin la espera en la cola del carril. Mientras no haya permisos el carril
+     * no avanza, su cola se llena y el consumidor deja de pedir eventos al binder.
+     */
+    private Flux<Void> withPermit(Function<Long, Flux<Void>> write) {
+        return limiter.acquire()
+                .flatMapMany(admittedAt -> write.apply(admittedAt).doFinally(signal -> limiter.release(admittedAt)));
+    }
+
+    /**
+     * Consume el destino de reintentos. Cada evento espera sin bloquear hasta su hora de reintento y se procesa
+     * igual que en el destino principal; si vuelve a fallar pasa al siguiente reintento o a la DLQ.
+     * Un evento reintentado ya no conserva el orden respecto de los eventos de su misma clave.
+     */
+    @Bean("retryProcessor")
+    public Function<Flux<Message<Event<Integer, NotificationDto>>>, Flux<Void>> retryProcessor() {
+        return messages -> messages.flatMap(message -> {
+            long wait = FailedEventRouter.notBeforeOf(message.getHeaders()) - System.currentTimeMillis();
+            int attempt = FailedEventRouter.attemptOf(message.getHeaders());
+            return Mono.delay(Duration.ofMillis(Math.max(0, wait)))
+                    .then(limiter.acquire())
+                    .flatMapMany(admittedAt -> processEventOnce(message.getPayload(), attempt, admittedAt)
+                            .doFinally(signal -> limiter.release(admittedAt)));
+        }, retryConcurrency);
+    }
+
+    /**
+     * Procesa el evento solo si no fue procesado antes; los reenvíos del binder se confirman sin tocar la BD.
+     * Un error no corta el flujo: el evento se envía a reintentos o a la DLQ y se sigue con el siguiente.
+     * @param attempt    Reintentos ya hechos con el evento.
+     * @param admittedAt Instante en que el evento obtuvo su permiso del limitador.
+     */
+    private Flux<Void> processEventOnce(Event<Integer, NotificationDto> event, int attempt, long admittedAt) {
+        return processedEvents.isDuplicate(event)
+                .flatMapMany(duplicate -> {
+                    if (duplicate) {
+                        LOGGER.debug("Evento duplicado descartado para la clave: {}", event.getKey());
+                        recordEvent(event, "duplicate");
+                        return Flux.empty();
+                    }
+                    return processEvent(event)
+                            .doOnComplete(() -> recordEvent(event, "applied"))
+                            // Igual que en el modo por lotes: una llave duplicada en un CREATE significa que el
+                            // evento ya se había aplicado, así que se marca como procesado en lugar de ir a la DLQ.
+                            .onErrorResume(NotificationService::isDuplicateKey, ex -> {
+                                LOGGER.warn("Llave duplicada, Notification Id: {}", event.getKey());
+                                recordEvent(event, "duplicate_key");
+                                return Flux.empty();
+                            })
+                            .concatWith(processedEvents.markProcessed(event));
+                })
+                .onErrorResume(ex -> {
+                    recordEvent(event, ex instanceof InvalidInputException ? "invalid" : "failed");
+                    if (FailedEventRouter.isRetryable(ex)) {
+                        limiter.onDropped(admittedAt);
+                    }
+                    return failedEvents.route(event, ex, attempt).then().flux();
+                });
+    }
+
+    private void recordEvent(Event<Integer, NotificationDto> event, String outcome) {
+        metrics.recordEvent(event.getEventType(), outcome, event.getEventCreatedAt());
+        sampledLogger.sample()
+                .addKeyValue("eventType", event.getEventType())
+                .addKeyValue("key", event.getKey())
+                .addKeyValue("outcome", outcome)
+                .log("Evento procesado");
+    }
+
+    private Flux<Void> processEvent(Event<Integer, NotificationDto> event) {
+        LOGGER.debug("Procesando evento para la clave: {}", event.getKey());
+
+        if (event.getEventType() == null) {
+            return Flux.error(new EventProcessingException("Evento sin tipo para la clave: " + event.getKey()));
+        }
+
+        try {
+            switch (event.getEventType()) {
+                case CREATE:
+                    return notificationServiceController.createNotification(event.getData())
+                            .doOnNext(dto -> LOGGER.debug("Notificación creada con ID: {}", dto.getNotificationId()))
+                            .then()
+                            .flux();
+
+                case DELETE:
+                    return notificationServiceController.deleteNotificationByBusinessId(event.getKey())
+                            .doOnSuccess(v -> LOGGER.debug("Notificación eliminada con ID: {}", event.getKey()))
+                            .flux();
+
+                default:
+                    String errorMessage = "Tipo de evento incorrecto: " + event.getEventType() + ", se espera CREATE o DELETE";
+                    LOGGER.warn(errorMessage);
+                    return Flux.error(new EventProcessingException(errorMessage));
             }
-        });
+        } catch (Exception e) {
+            LOGGER.error("Error procesando evento: {}", event.getKey(), e);
+            return Flux.error(e);
+        }
+    }
+
+    private Flux<Void> processBatch(List<Event<Integer, NotificationDto>> batch, long admittedAt) {
+        LOGGER.debug("Procesando lote de {} eventos", batch.size());
+
+        List<Event<Integer, NotificationDto>> completed = new ArrayList<>(batch.size());
+        int[] reported = {0};
+        return notificationService.applyEventBatch(batch)
+                .index()
+                .concatMap(indexed -> {
+                    Event<Integer, NotificationDto> event = batch.get(indexed.getT1().intValue());
+                    NotificationBulkResult result = indexed.getT2();
+                    reported[0]++;
+                    logBatchResult(result);
+                    recordEvent(event, outcomeOf(result));
+                    return switch (result.outcome()) {
+                        // Una llave duplicada en un CREATE significa que el evento ya se había aplicado.
+                        case APPLIED, DUPLICATE_KEY -> {
+                            completed.add(event);
+                            yield Mono.<Void>empty();
+                        }
+                        case INVALID -> failedEvents.route(event, new InvalidInputException(result.message()), false, 0).then();
+                        case FAILED -> {
+                            limiter.onDropped(admittedAt);
+                            yield failedEvents.route(event, new EventProcessingException(result.message()), true, 0).then();
+                        }
+                    };
+                })
+                // Si falla el lote completo, los eventos que no recibieron resultado se envían a reintentos.
+                .onErrorResume(ex -> Flux.fromIterable(batch.subList(reported[0], batch.size()))
+                        .doOnSubscribe(subscription -> limiter.onDropped(admittedAt))
+                        .concatMap(event -> {
+                            recordEvent(event, "failed");
+                            return failedEvents.route(event, ex, 0).then();
+                        }))
+                .thenMany(Flux.defer(() -> processedEvents.markProcessed(completed).flux()));
     }
-}
 
+    private static String outcomeOf(NotificationBulkResult result) {
+        return switch (result.outcome()) {
+            case APPLIED -> "applied";
+            case DUPLICATE_KEY -> "duplicate_key";
+            case INVALID -> "invalid";
+            case FAILED -> "failed";
+        };
+    }
+
+    // Cada evento del lote se reporta por separado, igual que en el modo de un evento a la vez.
+    private void logBatchResult(NotificationBulkResult result) {
+        switch (result.outcome()) {
+            case APPLIED -> LOGGER.debug("Evento {} aplicado para ID: {}", result.type(), result.notificationId());
+            case DUPLICATE_KEY -> LOGGER.warn("Llave duplicada, Notification Id: {}", result.notificationId());
+            case INVALID -> LOGGER.warn("Evento inválido para ID {}: {}", result.notificationId(), result.message());
+            case FAILED -> LOGGER.error("Error procesando evento {} para ID {}: {}",
+                    result.type(), result.notificationId(), result.message());
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.config;
+
+import bo.edu.ucb.microservices.core.notification.ms_notification.metrics.NotificationMetrics;
+import bo.edu.ucb.microservices.core.notification.ms_notification.metrics.RepositoryMetricsInterceptor;
+import bo.edu.ucb.microservices.core.notification.ms_notification.repository.InMemoryNotificationRepository;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Agrega {@link RepositoryMetricsInterceptor} al proxy de cada repositorio de Spring Data,
+     * y envuelve en un proxy con el mismo interceptor el repositorio en memoria del perfil 'in-memory'.
+     * Es estático para que el post-procesador se registre antes de crear los repositorios.
+     */
+    @Bean
+    static BeanPostProcessor repositoryMetricsPostProcessor(ObjectProvider<NotificationMetrics> metrics) {
+        RepositoryMetricsInterceptor interceptor = new RepositoryMetricsInterceptor(metrics);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(interceptor)));
+                }
+                return bean;
+            }
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof InMemoryNotificationRepository) {
+                    ProxyFactory proxyFactory = new ProxyFactory(bean);
+                    proxyFactory.addAdvice(interceptor);
+                    return proxyFactory.getProxy();
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,122 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.config;
+
+import bo.edu.ucb.microservices.core.notification.ms_notification.messaging.ProcessedEventStore;
+import bo.edu.ucb.microservices.core.notification.ms_notification.model.Notification;
+import bo.edu.ucb.microservices.core.notification.ms_notification.model.OutboxMessage;
+import bo.edu.ucb.microservices.core.notification.ms_notification.model.ProcessedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mapping.context.MappingContext;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Crea los índices de las colecciones del servicio (notificaciones, outbox y el TTL de eventos procesados) al
+ * arrancar, en paralelo y sin bloquear hilos.
+ * Mientras no estén listos, el indicador 'mongoIndexes' responde DOWN y, al estar incluido en el grupo
+ * de readiness del actuator, la instancia se reporta como no lista para recibir tráfico.
+ * Con el perfil 'in-memory' no hay colección que indexar y este componente no se crea.
+ */
+@Component("mongoIndexes")
+@Profile("!in-memory")
+public class MongoIndexInitializer implements HealthIndicator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MongoIndexInitializer.class);
+
+    // Entidades cuyos índices declarados con anotaciones se crean al arrancar.
+    private static final List<Class<?>> INDEXED_ENTITIES = List.of(Notification.class, OutboxMessage.class);
+
+    private final ReactiveMongoOperations mongoTemplate;
+    private final ProcessedEventStore processedEvents;
+    private final int concurrency;
+
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final AtomicBoolean ready = new AtomicBoolean();
+    private final AtomicReference<Throwable> lastError = new AtomicReference<>();
+
+    @Autowired
+    public MongoIndexInitializer(ReactiveMongoOperations mongoTemplate, ProcessedEventStore processedEvents,
+                                 @Value("${app.notification.indexes.concurrency:4}") int concurrency) {
+        this.mongoTemplate = mongoTemplate;
+        this.processedEvents = processedEvents;
+        this.concurrency = concurrency;
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void initIndicesAfterStartup() {
+        // Los contextos hijos (binders de Spring Cloud Stream) también publican eventos; se inicia una sola vez.
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        LOGGER.info("---- Ensuring MongoDB indexes are created ----");
+
+        MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> mappingContext = mongoTemplate
+                .getConverter().getMappingContext();
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+        List<Tuple2<ReactiveIndexOperations, IndexDefinition>> indexes = new ArrayList<>();
+        for (Class<?> entity : INDEXED_ENTITIES) {
+            ReactiveIndexOperations indexOps = mongoTemplate.indexOps(entity);
+            resolver.resolveIndexFor(entity).forEach(index -> indexes.add(Tuples.of(indexOps, index)));
+        }
+        // El vencimiento de los eventos procesados es configurable, así que su índice no sale de una anotación.
+        IndexDefinition processedEventsTtl = processedEvents.ttlIndex();
+        if (processedEventsTtl != null) {
+            indexes.add(Tuples.of(mongoTemplate.indexOps(ProcessedEvent.class), processedEventsTtl));
+        }
+
+        Flux.fromIterable(indexes)
+                .flatMap(index -> index.getT1().ensureIndex(index.getT2()), concurrency)
+                .doOnNext(name -> LOGGER.debug("Índice listo: {}", name))
+                .doOnError(ex -> {
+                    lastError.set(ex);
+                    LOGGER.warn("No se pudieron crear los índices de MongoDB, reintentando", ex);
+                })
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .then()
+                .subscribe(null, ex -> LOGGER.error("Error creando índices de MongoDB", ex), () -> {
+                    ready.set(true);
+                    lastError.set(null);
+                    LOGGER.info("---- {} MongoDB indexes ready ----", indexes.size());
+                });
+    }
+
+    public boolean isReady() {
+        return ready.get();
+    }
+
+    @Override
+    public Health health() {
+        if (ready.get()) {
+            return Health.up().build();
+        }
+        Health.Builder builder = Health.down().withDetail("reason", "Creando índices de MongoDB");
+        Throwable error = lastError.get();
+        if (error != null) {
+            builder.withDetail("lastError", error.getMessage());
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,54 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.controller;
+
+import bo.edu.ucb.microservices.core.notification.ms_notification.messaging.DeadLetterReplayer;
+import bo.edu.ucb.microservices.dto.notification.DeadLetterReplayResultDto;
+import bo.edu.ucb.microservices.util.exceptions.InvalidInputException;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/v1/notification/admin")
+@Tag(name = "Notification Admin", description = "Operaciones de administración del consumo de eventos")
+public class DeadLetterAdminController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeadLetterAdminController.class);
+
+    private final DeadLetterReplayer deadLetterReplayer;
+
+    @Value("${app.notification.consumer.dead-letter.replay-max-batch:1000}")
+    int replayMaxBatch;
+
+    @Autowired
+    public DeadLetterAdminController(DeadLetterReplayer deadLetterReplayer) {
+        this.deadLetterReplayer = deadLetterReplayer;
+    }
+
+    @Operation(summary = "Reenvía al destino principal una tanda de eventos de la cola de mensajes muertos (DLQ)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Cantidad de eventos reenviados; menor al límite si la DLQ se vació"),
+            @ApiResponse(responseCode = "422", description = "Límite fuera de rango")
+    })
+    @PostMapping(value = "/dead-letters/replay", produces = "application/json")
+    public Mono<DeadLetterReplayResultDto> replayDeadLetters(
+            @Parameter(description = "Máximo de eventos a reenviar", example = "100")
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        LOGGER.debug("POST /notification/admin/dead-letters/replay?limit={}", limit);
+        if (limit < 1 || limit > replayMaxBatch) {
+            return Mono.error(new InvalidInputException("Límite inválido: " + limit + ", debe estar entre 1 y " + replayMaxBatch));
+        }
+        return deadLetterReplayer.replay(limit)
+                .map(replayed -> new DeadLetterReplayResultDto(limit, replayed));
+    }
+}
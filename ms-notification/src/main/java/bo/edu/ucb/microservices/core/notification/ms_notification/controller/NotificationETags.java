@@ -0,0 +1,60 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.controller;
+
+import org.springframework.http.HttpHeaders;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ETags fuertes de las notificaciones, derivados del campo 'version' del documento: "&lt;version&gt;".
+ * Un documento sin versión tiene el ETag "0".
+ */
+final class NotificationETags {
+
+    private static final String WEAK_PREFIX = "W/";
+    private static final String ANY = "*";
+
+    private NotificationETags() {
+    }
+
+    static String of(Integer version) {
+        return "\"" + (version != null ? version : 0) + "\"";
+    }
+
+    /**
+     * Versiones aceptadas por If-Match. If-Match usa comparación fuerte, así que los ETags débiles nunca coinciden.
+     * @return null si no hay If-Match o es '*' (basta con que exista); si no, las versiones de los ETags
+     * válidos, vacía si ninguno lo es.
+     */
+    static List<Integer> expectedVersions(HttpHeaders headers) {
+        List<String> values = headers.get(HttpHeaders.IF_MATCH);
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        List<Integer> versions = new ArrayList<>();
+        for (String value : values) {
+            for (String tag : value.split(",")) {
+                tag = tag.trim();
+                if (ANY.equals(tag)) {
+                    return null;
+                }
+                Integer version = parse(tag);
+                if (version != null) {
+                    versions.add(version);
+                }
+            }
+        }
+        return versions;
+    }
+
+    private static Integer parse(String tag) {
+        if (tag.startsWith(WEAK_PREFIX) || tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+}
@@ -1,6 +1,14 @@
 package bo.edu.ucb.microservices.core.notification.ms_notification.controller;
 
+import bo.edu.ucb.microservices.core.notification.ms_notification.model.NotificationView;
+import bo.edu.ucb.microservices.core.notification.ms_notification.repository.NotificationBulkResult;
+import bo.edu.ucb.microservices.core.notification.ms_notification.services.NotificationCursor;
+import bo.edu.ucb.microservices.core.notification.ms_notification.services.NotificationFeed;
 import bo.edu.ucb.microservices.core.notification.ms_notification.services.NotificationService;
+import bo.edu.ucb.microservices.dto.notification.NotificationBulkDeleteDto;
+import bo.edu.ucb.microservices.dto.notification.NotificationBulkDeleteResultDto;
+import bo.edu.ucb.microservices.dto.notification.NotificationBulkItemResultDto;
+import bo.edu.ucb.microservices.dto.notification.NotificationCountsDto;
 import bo.edu.ucb.microservices.dto.notification.NotificationDto;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -11,11 +19,19 @@ import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.function.IntFunction;
+
 
 @RestController
 @RequestMapping("/v1/notification")
@@ -25,10 +41,16 @@ public class NotificationServiceController {
     private static final Logger LOGGER = LoggerFactory.getLogger(NotificationServiceController.class);
 
     private final NotificationService notificationService;
+    private final NotificationFeed notificationFeed;
+
+    // Comentarios SSE periódicos para que el gateway y los proxies no cierren la conexión inactiva.
+    @Value("${app.notification.feed.heartbeat-seconds:15}")
+    long feedHeartbeatSeconds;
 
     @Autowired
-    public NotificationServiceController(NotificationService notificationService) {
+    public NotificationServiceController(NotificationService notificationService, NotificationFeed notificationFeed) {
         this.notificationService = notificationService;
+        this.notificationFeed = notificationFeed;
     }
 
     // --- ENDPOINTS QUE OPERAN CON EL ID DE NEGOCIO (int) ---
@@ -41,68 +63,216 @@ public class NotificationServiceController {
     @PostMapping(consumes = "application/json", produces = "application/json")
     @ResponseStatus(HttpStatus.CREATED)
     public Mono<NotificationDto> createNotification(@Valid @RequestBody NotificationDto dto) {
-        LOGGER.info("POST /notification, creando notificación con ID de negocio: {}", dto.getNotificationId());
+        LOGGER.debug("POST /notification, creando notificación con ID de negocio: {}", dto.getNotificationId());
         return notificationService.createNotification(dto);
     }
 
-    @Operation(summary = "Obtiene una notificación por su ID de negocio (int)")
+    @Operation(summary = "Crea notificaciones de forma masiva a partir de un arreglo JSON o de un cuerpo NDJSON en streaming")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Resultado por cada notificación, en el mismo orden recibido")
+    })
+    @PostMapping(value = "/bulk",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<NotificationBulkItemResultDto> ingestNotifications(@RequestBody Flux<NotificationDto> dtos) {
+        LOGGER.debug("POST /notification/bulk");
+        return notificationService.ingestNotifications(dtos)
+                .index()
+                .map(indexed -> toItemResult(indexed.getT1(), indexed.getT2()));
+    }
+
+    private static NotificationBulkItemResultDto toItemResult(long index, NotificationBulkResult result) {
+        String outcome = result.isApplied() ? "CREATED" : result.outcome().name();
+        return new NotificationBulkItemResultDto(index, result.notificationId(), outcome, result.message());
+    }
+
+    @Operation(summary = "Obtiene una notificación por su ID de negocio (int); responde 304 si If-None-Match coincide con su ETag")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Notificación encontrada, con su ETag"),
+            @ApiResponse(responseCode = "304", description = "El cliente ya tiene la versión actual"),
+            @ApiResponse(responseCode = "404", description = "Notificación no encontrada")
+    })
     @GetMapping(value = "/{notificationId}", produces = "application/json")
     public Mono<NotificationDto> getNotificationByBusinessId(
             @Parameter(description = "ID de negocio de la notificación", required = true, example = "101")
-            @PathVariable("notificationId") int notificationId) {
-        LOGGER.info("GET /notification/{}", notificationId);
-        return notificationService.getNotification(notificationId);
+            @PathVariable("notificationId") int notificationId, ServerWebExchange exchange) {
+        LOGGER.debug("GET /notification/{}", notificationId);
+        return conditionalGet(exchange,
+                Mono.defer(() -> notificationService.getNotificationVersion(notificationId)),
+                minVersion -> notificationService.getNotificationView(notificationId, minVersion));
+    }
+
+    // Con If-None-Match primero se lee solo la versión: si coincide se responde 304 sin cuerpo y sin leer
+    // la notificación. El ETag de una respuesta 200 sale de la versión que se leyó, no de la consulta previa.
+    // Si no coincide, el cuerpo se pide con esa versión como mínima, así una caché atrasada no lo responde.
+    private Mono<NotificationDto> conditionalGet(ServerWebExchange exchange, Mono<Integer> version,
+                                                 IntFunction<Mono<NotificationView>> read) {
+        if (exchange.getRequest().getHeaders().getIfNoneMatch().isEmpty()) {
+            return body(exchange, Mono.defer(() -> read.apply(0)));
+        }
+        return version.flatMap(current -> exchange.checkNotModified(NotificationETags.of(current))
+                ? Mono.empty()
+                : body(exchange, read.apply(current)));
+    }
+
+    private Mono<NotificationDto> body(ServerWebExchange exchange, Mono<NotificationView> read) {
+        return read
+                .doOnNext(view -> exchange.getResponse().getHeaders().setETag(NotificationETags.of(view.version())))
+                .map(notificationService::toListedDto);
     }
 
-    @Operation(summary = "Actualiza una notificación por su ID de negocio (int)")
+    private static Mono<NotificationDto> withETag(ServerWebExchange exchange, Mono<NotificationView> updated) {
+        return updated
+                .doOnNext(view -> exchange.getResponse().getHeaders().setETag(NotificationETags.of(view.version())))
+                .map(NotificationView::toDto);
+    }
+
+    @Operation(summary = "Lista en streaming (NDJSON) las notificaciones de un usuario y/o estado, de la más nueva a la más antigua")
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<NotificationDto> streamNotifications(
+            @Parameter(description = "ID del usuario", example = "7") @RequestParam(required = false) Integer userId,
+            @Parameter(description = "Estado de la notificación", example = "ENVIADO") @RequestParam(required = false) String status,
+            @Parameter(description = "Cursor opaco devuelto en un listado anterior") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Máximo de notificaciones a devolver") @RequestParam(required = false) Integer limit) {
+        LOGGER.debug("GET /notification (ndjson), userId: {}, status: {}", userId, status);
+        return notificationService.streamNotifications(userId, status, cursor, limit)
+                .map(notificationService::toListedDto);
+    }
+
+    @Operation(summary = "Lista en streaming (SSE) las notificaciones de un usuario y/o estado; el id de cada evento es el cursor para continuar")
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<NotificationDto>> streamNotificationEvents(
+            @RequestParam(required = false) Integer userId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Cursor del último evento recibido, enviado por el cliente SSE al reconectar")
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        LOGGER.debug("GET /notification (sse), userId: {}, status: {}", userId, status);
+        String resumeFrom = cursor != null ? cursor : lastEventId;
+        return notificationService.streamNotifications(userId, status, resumeFrom, limit)
+                .map(view -> ServerSentEvent.builder(notificationService.toListedDto(view))
+                        .id(NotificationCursor.encode(view.id()))
+                        .build());
+    }
+
+    @Operation(summary = "Busca notificaciones por texto en título y mensaje, ordenadas por relevancia")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de resultados"),
+            @ApiResponse(responseCode = "422", description = "Texto vacío o paginación inválida")
+    })
+    @GetMapping(value = "/search", produces = "application/json")
+    public Flux<NotificationDto> searchNotifications(
+            @Parameter(description = "Términos a buscar", required = true, example = "devolución libro") @RequestParam("q") String text,
+            @Parameter(description = "ID del usuario", example = "7") @RequestParam(required = false) Integer userId,
+            @Parameter(description = "Número de página, desde 0", example = "0") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Tamaño de la página", example = "20") @RequestParam(defaultValue = "20") int size) {
+        LOGGER.debug("GET /notification/search, page: {}, size: {}", page, size);
+        return notificationService.searchNotifications(text, userId, page, size);
+    }
+
+    @Operation(summary = "Obtiene los contadores de notificaciones de un usuario (total, sin leer y por estado)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Contadores del usuario; en cero si no tiene notificaciones"),
+            @ApiResponse(responseCode = "422", description = "ID de usuario inválido")
+    })
+    @GetMapping(value = "/user/{userId}/counts", produces = "application/json")
+    public Mono<NotificationCountsDto> getNotificationCounts(
+            @Parameter(description = "ID del usuario", required = true, example = "7") @PathVariable("userId") int userId) {
+        LOGGER.debug("GET /notification/user/{}/counts", userId);
+        return notificationService.getNotificationCounts(userId);
+    }
+
+    @Operation(summary = "Canal en tiempo real (SSE) con las notificaciones nuevas o actualizadas de un usuario")
+    @GetMapping(value = "/user/{userId}/feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<NotificationDto>> notificationFeed(
+            @Parameter(description = "ID del usuario", required = true, example = "7") @PathVariable("userId") int userId) {
+        LOGGER.debug("GET /notification/user/{}/feed", userId);
+        Flux<ServerSentEvent<NotificationDto>> notifications = notificationFeed.subscribe(userId)
+                .map(dto -> ServerSentEvent.builder(dto).event("notification").build());
+        Flux<ServerSentEvent<NotificationDto>> heartbeats = Flux.interval(Duration.ofSeconds(feedHeartbeatSeconds))
+                .map(tick -> ServerSentEvent.<NotificationDto>builder().comment("heartbeat").build());
+        return Flux.merge(notifications, heartbeats);
+    }
+
+    @Operation(summary = "Actualiza una notificación por su ID de negocio (int); con If-Match solo si su ETag coincide")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Notificación actualizada, con su nuevo ETag"),
+            @ApiResponse(responseCode = "404", description = "Notificación no encontrada"),
+            @ApiResponse(responseCode = "409", description = "La notificación está archivada: se puede leer pero no modificar"),
+            @ApiResponse(responseCode = "412", description = "La notificación cambió: If-Match no coincide con su ETag")
+    })
     @PutMapping(value = "/{notificationId}", consumes = "application/json", produces = "application/json")
     public Mono<NotificationDto> updateNotificationByBusinessId(
-            @PathVariable int notificationId, @RequestBody NotificationDto dto) {
-        LOGGER.info("PUT /notification/{}, actualizando con: {}", notificationId, dto);
-        return notificationService.updateNotification(notificationId, dto);
+            @PathVariable int notificationId, @RequestBody NotificationDto dto, ServerWebExchange exchange) {
+        LOGGER.debug("PUT /notification/{}", notificationId);
+        return withETag(exchange, notificationService.updateNotification(notificationId, dto,
+                NotificationETags.expectedVersions(exchange.getRequest().getHeaders())));
     }
 
     @Operation(summary = "Elimina una notificación por su ID de negocio (int)")
     @DeleteMapping(value = "/{notificationId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public Mono<Void> deleteNotificationByBusinessId(@PathVariable("notificationId") int notificationId) {
-        LOGGER.info("DELETE /notification/{}", notificationId);
+        LOGGER.debug("DELETE /notification/{}", notificationId);
         return notificationService.deleteNotification(notificationId);
     }
 
+    @Operation(summary = "Elimina varias notificaciones en una sola operación (por IDs de negocio, usuario y/o estado)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Cantidad de notificaciones eliminadas"),
+            @ApiResponse(responseCode = "422", description = "No se indicó ningún criterio o hay IDs inválidos")
+    })
+    @PostMapping(value = "/bulk-delete", consumes = "application/json", produces = "application/json")
+    public Mono<NotificationBulkDeleteResultDto> deleteNotifications(@RequestBody NotificationBulkDeleteDto request) {
+        LOGGER.debug("POST /notification/bulk-delete, userId: {}, status: {}", request.getUserId(), request.getStatus());
+        return notificationService.deleteNotifications(request.getNotificationIds(), request.getUserId(), request.getStatus())
+                .map(NotificationBulkDeleteResultDto::new);
+    }
+
 
     // --- ENDPOINTS QUE OPERAN CON EL ID DE LA BASE DE DATOS (String de MongoDB) ---
 
     @Operation(summary = "Obtiene una notificación por su ID de base de datos (String)")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Notificación encontrada"),
+            @ApiResponse(responseCode = "200", description = "Notificación encontrada, con su ETag"),
+            @ApiResponse(responseCode = "304", description = "El cliente ya tiene la versión actual"),
             @ApiResponse(responseCode = "404", description = "Notificación no encontrada")
     })
     // Se añade /db/ para diferenciarlo del endpoint que usa un 'int'
     @GetMapping(value = "/db/{mongoId}", produces = "application/json")
     public Mono<NotificationDto> getNotificationByMongoId(
             @Parameter(description = "ID de la notificación generado por MongoDB", required = true, example = "6724b1a434c3a3795388a10d")
-            @PathVariable("mongoId") String mongoId
+            @PathVariable("mongoId") String mongoId, ServerWebExchange exchange
     ) {
-        LOGGER.info("GET /notification/db/{}", mongoId);
+        LOGGER.debug("GET /notification/db/{}", mongoId);
         // Se necesita un nuevo método en el servicio que opere con el String id
-        return notificationService.getNotificationByMongoId(mongoId);
+        return conditionalGet(exchange,
+                Mono.defer(() -> notificationService.getNotificationVersionByMongoId(mongoId)),
+                minVersion -> notificationService.getNotificationViewByMongoId(mongoId, minVersion));
     }
 
-    @Operation(summary = "Actualiza una notificación por su ID de base de datos (String)")
+    @Operation(summary = "Actualiza una notificación por su ID de base de datos (String); con If-Match solo si su ETag coincide")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Notificación actualizada, con su nuevo ETag"),
+            @ApiResponse(responseCode = "404", description = "Notificación no encontrada"),
+            @ApiResponse(responseCode = "409", description = "La notificación está archivada: se puede leer pero no modificar"),
+            @ApiResponse(responseCode = "412", description = "La notificación cambió: If-Match no coincide con su ETag")
+    })
     @PutMapping(value = "/db/{mongoId}", consumes = "application/json", produces = "application/json")
     public Mono<NotificationDto> updateNotificationByMongoId(
-            @PathVariable String mongoId, @RequestBody NotificationDto dto) {
-        LOGGER.info("PUT /notification/db/{}, actualizando con: {}", mongoId, dto);
+            @PathVariable String mongoId, @RequestBody NotificationDto dto, ServerWebExchange exchange) {
+        LOGGER.debug("PUT /notification/db/{}", mongoId);
         // Se necesita un nuevo método en el servicio
-        return notificationService.updateNotificationByMongoId(mongoId, dto);
+        return withETag(exchange, notificationService.updateNotificationByMongoId(mongoId, dto,
+                NotificationETags.expectedVersions(exchange.getRequest().getHeaders())));
     }
 
     @Operation(summary = "Elimina una notificación por su ID de base de datos (String)")
     @DeleteMapping(value = "/db/{mongoId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public Mono<Void> deleteNotificationByMongoId(@PathVariable("mongoId") String mongoId) {
-        LOGGER.info("DELETE /notification/db/{}", mongoId);
+        LOGGER.debug("DELETE /notification/db/{}", mongoId);
         // Se necesita un nuevo método en el servicio
         return notificationService.deleteNotificationByMongoId(mongoId);
     }
@@ -0,0 +1,44 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.spi.LoggingEventBuilder;
+import org.slf4j.spi.NOPLoggingEventBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Log estructurado por muestreo para las rutas calientes (peticiones HTTP y eventos).
+ * Solo una fracción 'app.logging.sample-rate' de las llamadas produce una línea; el resto recibe un
+ * builder vacío, así armar el log no cuesta nada. Los campos se agregan con addKeyValue y salen como
+ * campos propios cuando el formato de consola es estructurado (perfil 'structured-logs').
+ * El nivel de este logger se puede cambiar en caliente con /actuator/loggers.
+ */
+@Component
+public class SampledLogger {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SampledLogger.class);
+
+    private final double sampleRate;
+
+    @Autowired
+    public SampledLogger(@Value("${app.logging.sample-rate:0.01}") double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Devuelve un builder de log INFO si esta llamada entra en la muestra, o uno que no hace nada.
+     */
+    public LoggingEventBuilder sample() {
+        if (sampleRate <= 0 || !LOGGER.isInfoEnabled()) {
+            return NOPLoggingEventBuilder.singleton();
+        }
+        if (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return NOPLoggingEventBuilder.singleton();
+        }
+        return LOGGER.atInfo();
+    }
+}
@@ -0,0 +1,39 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.logging;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Una línea de log estructurada por petición muestreada: método, ruta, estado y duración.
+ * Reemplaza los LOGGER.info por endpoint, que se escribían en cada petición.
+ */
+@Component
+public class SampledRequestLogFilter implements WebFilter {
+
+    private final SampledLogger sampledLogger;
+
+    @Autowired
+    public SampledRequestLogFilter(SampledLogger sampledLogger) {
+        this.sampledLogger = sampledLogger;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    sampledLogger.sample()
+                            .addKeyValue("method", exchange.getRequest().getMethod().name())
+                            .addKeyValue("path", exchange.getRequest().getPath().value())
+                            .addKeyValue("status", status != null ? status.value() : 0)
+                            .addKeyValue("durationMs", (System.nanoTime() - start) / 1_000_000)
+                            .log("Petición atendida");
+                });
+    }
+}
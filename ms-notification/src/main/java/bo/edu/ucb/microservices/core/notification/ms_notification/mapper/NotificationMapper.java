@@ -1,11 +1,11 @@
 package bo.edu.ucb.microservices.core.notification.ms_notification.mapper;
 
 import bo.edu.ucb.microservices.core.notification.ms_notification.model.Notification;
+import bo.edu.ucb.microservices.core.notification.ms_notification.repository.NotificationChanges;
 import bo.edu.ucb.microservices.dto.notification.NotificationDto;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Mappings;
-import org.mapstruct.MappingTarget; // Import necesario
 
 // 1. @Mapper(componentModel = "spring") le dice a MapStruct que genere una implementación
 //    de esta interfaz y que la convierta en un Bean de Spring para poder inyectarla en otros servicios.
@@ -27,25 +27,12 @@ public interface NotificationMapper {
             @Mapping(target = "version", ignore = true),
             // Ignoramos campos que no vienen en el DTO de creación,
             // sino que se asignan internamente en la lógica de negocio.
-            @Mapping(target = "userId", ignore = true),
-            @Mapping(target = "status", ignore = true),
-            @Mapping(target = "creationDate", ignore = true)
+            // (userId y status sí vienen en el DTO; el servicio pone el estado por defecto si falta.)
+            @Mapping(target = "creationDate", ignore = true),
+            @Mapping(target = "score", ignore = true)
     })
     Notification dtoToEntity(NotificationDto dto);
 
-    // --- NUEVO ---
-    // 4. Mapeo para actualizar una Entidad existente desde un DTO.
-    // La anotación @MappingTarget le dice a MapStruct que no cree una nueva instancia de Notification,
-    // sino que actualice la que le pasamos como parámetro.
-    @Mappings({
-            // Ignoramos los campos que no deben ser modificados por el usuario durante una actualización.
-            @Mapping(target = "id", ignore = true),
-            @Mapping(target = "version", ignore = true),
-            @Mapping(target = "userId", ignore = true),
-            @Mapping(target = "status", ignore = true),
-            @Mapping(target = "creationDate", ignore = true),
-            // El notificationId tampoco debería cambiar, ya que es el identificador de negocio.
-            @Mapping(target = "notificationId", ignore = true)
-    })
-    void updateEntityFromDto(NotificationDto dto, @MappingTarget Notification entity);
-}
\ No newline at end of file
+    // 4. Extrae del DTO solo los campos modificables, para actualizar con un único findAndModify.
+    NotificationChanges dtoToChanges(NotificationDto dto);
+}
@@ -0,0 +1,210 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.messaging;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Límite adaptativo (AIMD) de las escrituras que el consumidor tiene en curso contra MongoDB.
+ * <p>
+ * Cada escritura (un evento, o un lote en modo por lotes) toma un permiso cuando su carril empieza a procesarla
+ * y lo devuelve al terminar; la latencia entre ambos momentos es la muestra y no incluye la espera en la cola
+ * del carril. Si la muestra supera el umbral, o MongoDB falla, el límite se multiplica por 'backoff-ratio';
+ * mientras la latencia se mantenga bajo el umbral crece en 1 por cada 'limit' muestras. Como cada carril escribe
+ * de a uno, el límite solo restringe por debajo del número de carriles y solo crece mientras se usa.
+ * Sin permisos libres los carriles se detienen y el consumidor deja de pedir eventos al binder, que a su vez
+ * deja de recibirlos del broker: la sobrecarga se convierte en backpressure en lugar de timeouts.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+
+    // Límite actual y eventos con permiso, sin tags.
+    public static final String LIMIT_GAUGE = "notification.consumer.limit";
+    public static final String IN_FLIGHT_GAUGE = "notification.consumer.in-flight";
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+
+    private final Queue<Waiter> waiters = new ArrayDeque<>();
+    private double limit;
+    private int inFlight;
+    // Solo se reduce por muestras de eventos admitidos después de la última reducción.
+    private long lastDecreaseNanos = System.nanoTime();
+
+    @Autowired
+    public AdaptiveConcurrencyLimiter(MeterRegistry registry,
+                                      @Value("${app.notification.consumer.limiter.enabled:true}") boolean enabled,
+                                      @Value("${app.notification.consumer.limiter.initial-limit:32}") int initialLimit,
+                                      @Value("${app.notification.consumer.limiter.min-limit:1}") int minLimit,
+                                      @Value("${app.notification.consumer.limiter.max-limit:512}") int maxLimit,
+                                      @Value("${app.notification.consumer.limiter.latency-threshold-ms:250}") long latencyThresholdMs,
+                                      @Value("${app.notification.consumer.limiter.backoff-ratio:0.9}") double backoffRatio) {
+        if (minLimit < 1 || maxLimit < minLimit || backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Se espera 1 <= min-limit <= max-limit y 0 < backoff-ratio < 1");
+        }
+        this.enabled = enabled;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = Duration.ofMillis(latencyThresholdMs).toNanos();
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+
+        if (registry != null) {
+            Gauge.builder(LIMIT_GAUGE, this, AdaptiveConcurrencyLimiter::getLimit).register(registry);
+            Gauge.builder(IN_FLIGHT_GAUGE, this, AdaptiveConcurrencyLimiter::getInFlight).register(registry);
+        }
+    }
+
+    /**
+     * Espera (sin bloquear) un permiso.
+     * @return Un Mono con el instante de admisión en nanosegundos, que se devuelve en {@link #release(long)}.
+     */
+    public Mono<Long> acquire() {
+        if (!enabled) {
+            return Mono.fromSupplier(System::nanoTime);
+        }
+        // La cancelación se escucha con doOnCancel, ya registrado antes de que el permiso pueda concederse.
+        // A diferencia de sink.onCancel, también avisa cuando el suscriptor cancela justo antes de recibir el
+        // permiso ya concedido (y lo descarta).
+        return Mono.defer(() -> {
+            Waiter waiter = new Waiter();
+            return Mono.<Long>create(sink -> {
+                        waiter.sink = sink;
+                        boolean granted;
+                        synchronized (this) {
+                            granted = inFlight < (int) limit;
+                            if (granted) {
+                                inFlight++;
+                            } else {
+                                waiters.add(waiter);
+                            }
+                        }
+                        if (granted) {
+                            grant(waiter);
+                        }
+                    })
+                    .doOnCancel(() -> cancel(waiter));
+        });
+    }
+
+    // Con inFlight ya incrementado: entrega el permiso, o lo devuelve si el suscriptor canceló antes.
+    private void grant(Waiter waiter) {
+        if (waiter.state.compareAndSet(Waiter.WAITING, Waiter.GRANTED)) {
+            waiter.sink.success(System.nanoTime());
+        } else {
+            returnPermit();
+        }
+    }
+
+    private void cancel(Waiter waiter) {
+        int previous = waiter.state.getAndSet(Waiter.CANCELLED);
+        if (previous == Waiter.WAITING) {
+            synchronized (this) {
+                waiters.remove(waiter);
+            }
+        } else if (previous == Waiter.GRANTED) {
+            // Concedido pero cancelado antes de recibirse: el suscriptor lo descarta y nadie lo devolvería.
+            returnPermit();
+        }
+    }
+
+    private void returnPermit() {
+        synchronized (this) {
+            inFlight = Math.max(0, inFlight - 1);
+        }
+        grantWaiters();
+    }
+
+    /**
+     * Devuelve el permiso y ajusta el límite con la latencia observada desde la admisión.
+     */
+    public void release(long admittedAt) {
+        if (!enabled) {
+            return;
+        }
+        long latency = System.nanoTime() - admittedAt;
+        synchronized (this) {
+            inFlight = Math.max(0, inFlight - 1);
+            if (latency > latencyThresholdNanos) {
+                decrease(admittedAt);
+            } else if (inFlight * 2 >= limit) {
+                // Solo crece si el límite se está usando; con poca carga no dice nada sobre la capacidad.
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+        }
+        grantWaiters();
+    }
+
+    /**
+     * Una escritura falló por sobrecarga (timeout, conexión, etc.): reduce el límite de inmediato.
+     */
+    public void onDropped(long admittedAt) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            decrease(admittedAt);
+        }
+    }
+
+    private void decrease(long admittedAt) {
+        if (admittedAt - lastDecreaseNanos < 0) {
+            return;
+        }
+        double previous = limit;
+        limit = Math.max(minLimit, limit * backoffRatio);
+        lastDecreaseNanos = System.nanoTime();
+        if ((int) previous != (int) limit) {
+            LOGGER.debug("Límite de concurrencia del consumidor reducido de {} a {}", (int) previous, (int) limit);
+        }
+    }
+
+    private void grantWaiters() {
+        while (true) {
+            Waiter next;
+            synchronized (this) {
+                if (inFlight >= (int) limit || waiters.isEmpty()) {
+                    return;
+                }
+                next = waiters.poll();
+                inFlight++;
+            }
+            grant(next);
+        }
+    }
+
+    public synchronized int getLimit() {
+        return enabled ? (int) limit : maxLimit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    private static final class Waiter {
+
+        static final int WAITING = 0;
+        static final int GRANTED = 1;
+        static final int CANCELLED = 2;
+
+        final AtomicInteger state = new AtomicInteger(WAITING);
+        // Se asigna antes de encolar el Waiter, en el mismo hilo que lo encola.
+        MonoSink<Long> sink;
+    }
+}
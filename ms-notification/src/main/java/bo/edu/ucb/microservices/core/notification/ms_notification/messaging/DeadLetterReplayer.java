@@ -0,0 +1,92 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.messaging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.stream.binder.PollableMessageSource;
+import org.springframework.cloud.stream.binder.RequeueCurrentMessageException;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reenvía al destino principal los eventos de la cola de mensajes muertos (DLQ), en tandas y a pedido.
+ * La DLQ se consume con un {@link PollableMessageSource} (binding 'deadLetters-in-0'): solo se leen mensajes
+ * cuando se pide un reenvío. Cada evento se reenvía tal como llegó (mismo cuerpo y content type), sin las
+ * cabeceras del fallo, así vuelve a empezar con todos sus reintentos. Si el reenvío falla, el mensaje se
+ * devuelve a la DLQ y la tanda se detiene.
+ */
+@Component
+public class DeadLetterReplayer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeadLetterReplayer.class);
+
+    private final PollableMessageSource deadLetters;
+    private final StreamBridge streamBridge;
+    private final String replayDestination;
+
+    @Autowired
+    public DeadLetterReplayer(@Qualifier("deadLetters-in-0") PollableMessageSource deadLetters, StreamBridge streamBridge,
+                              @Value("${app.notification.consumer.dead-letter.replay-destination:notifications}") String replayDestination) {
+        this.deadLetters = deadLetters;
+        this.streamBridge = streamBridge;
+        this.replayDestination = replayDestination;
+    }
+
+    /**
+     * Reenvía hasta 'limit' eventos de la DLQ.
+     * @return Un Mono con la cantidad de eventos reenviados (menor a 'limit' si la DLQ se vació).
+     */
+    public Mono<Integer> replay(int limit) {
+        // poll() y send() bloquean; se ejecutan fuera del event loop, una tanda a la vez.
+        return Mono.fromCallable(() -> {
+                    synchronized (this) {
+                        int replayed = 0;
+                        AtomicBoolean failed = new AtomicBoolean();
+                        try {
+                            // Si el reenvío falla el mensaje se devuelve a la DLQ; no se sigue leyendo para no repetirlo.
+                            while (replayed < limit && deadLetters.poll(message -> republish(message, failed)) && !failed.get()) {
+                                replayed++;
+                            }
+                        } catch (MessagingException ex) {
+                            failed.set(true);
+                            LOGGER.error("Error leyendo la DLQ", ex);
+                        }
+                        if (failed.get()) {
+                            LOGGER.error("Reenvío desde la DLQ detenido tras {} eventos", replayed);
+                        }
+                        LOGGER.info("Eventos reenviados desde la DLQ a {}: {}", replayDestination, replayed);
+                        return replayed;
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private void republish(Message<?> message, AtomicBoolean failed) {
+        MessageBuilder<?> replay = MessageBuilder.withPayload(message.getPayload());
+        Object contentType = message.getHeaders().get(MessageHeaders.CONTENT_TYPE);
+        if (contentType != null) {
+            replay.setHeader(MessageHeaders.CONTENT_TYPE, contentType);
+        }
+        boolean sent;
+        try {
+            sent = streamBridge.send(replayDestination, replay.build());
+        } catch (RuntimeException ex) {
+            LOGGER.error("Error reenviando un evento a {}", replayDestination, ex);
+            sent = false;
+        }
+        if (!sent) {
+            failed.set(true);
+            throw new RequeueCurrentMessageException("No se pudo reenviar el evento a " + replayDestination);
+        }
+    }
+}
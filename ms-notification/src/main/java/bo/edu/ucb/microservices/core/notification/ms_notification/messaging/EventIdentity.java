@@ -0,0 +1,29 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.messaging;
+
+import bo.edu.ucb.microservices.util.events.Event;
+
+import java.time.Instant;
+
+/**
+ * Identidad de un evento: clave, tipo y fecha de creación.
+ * Dos entregas del mismo evento (reintentos del binder o rebalanceos) tienen la misma identidad.
+ */
+public record EventIdentity(String key, Event.Type eventType, Instant eventCreatedAt) {
+
+    /**
+     * @return La identidad del evento, o null si el evento no trae fecha de creación y no se puede deduplicar.
+     */
+    public static EventIdentity of(Event<?, ?> event) {
+        if (event.getEventCreatedAt() == null || event.getEventType() == null) {
+            return null;
+        }
+        return new EventIdentity(String.valueOf(event.getKey()), event.getEventType(), event.getEventCreatedAt().toInstant());
+    }
+
+    /**
+     * Representación compacta usada como _id en la colección de eventos procesados.
+     */
+    public String asId() {
+        return eventType + ":" + key + ":" + eventCreatedAt;
+    }
+}
@@ -0,0 +1,156 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.messaging;
+
+import bo.edu.ucb.microservices.util.events.Event;
+import bo.edu.ucb.microservices.util.exceptions.EventProcessingException;
+import bo.edu.ucb.microservices.util.exceptions.InvalidInputException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Saca del flujo principal los eventos que fallaron, para que un evento problemático no detenga al resto.
+ * Los errores transitorios se envían al destino de reintentos con la hora a partir de la cual se pueden
+ * reintentar; agotados los reintentos, o si el error no se arregla reintentando (evento inválido o de tipo
+ * desconocido), el evento va a la cola de mensajes muertos (DLQ). La causa viaja en las cabeceras.
+ */
+@Component
+public class FailedEventRouter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FailedEventRouter.class);
+
+    // Reintentos ya hechos con el evento (0 = primer intento en el destino principal).
+    public static final String ATTEMPT_HEADER = "x-retry-attempt";
+    // Epoch en milisegundos a partir del cual se puede reintentar.
+    public static final String NOT_BEFORE_HEADER = "x-retry-not-before";
+    public static final String EXCEPTION_CLASS_HEADER = "x-exception-class";
+    public static final String EXCEPTION_MESSAGE_HEADER = "x-exception-message";
+    public static final String FAILED_AT_HEADER = "x-failed-at";
+
+    private static final int MAX_EXCEPTION_MESSAGE_LENGTH = 1000;
+
+    /**
+     * Destino al que se envió el evento fallido.
+     */
+    public enum Route {
+        RETRY,
+        DEAD_LETTER,
+        // No se pudo enviar a ningún destino; queda solo en el log.
+        LOST
+    }
+
+    private final StreamBridge streamBridge;
+    private final boolean retryEnabled;
+    private final String retryDestination;
+    private final List<Long> retryDelaysMs;
+    private final String deadLetterDestination;
+
+    @Autowired
+    public FailedEventRouter(StreamBridge streamBridge,
+                             @Value("${app.notification.consumer.retry.enabled:true}") boolean retryEnabled,
+                             @Value("${app.notification.consumer.retry.destination:notifications.retry}") String retryDestination,
+                             @Value("${app.notification.consumer.retry.delays-ms:1000,10000,60000}") List<Long> retryDelaysMs,
+                             @Value("${app.notification.consumer.dead-letter.destination:notifications.dlq}") String deadLetterDestination) {
+        this.streamBridge = streamBridge;
+        this.retryEnabled = retryEnabled;
+        this.retryDestination = retryDestination;
+        this.retryDelaysMs = retryDelaysMs;
+        this.deadLetterDestination = deadLetterDestination;
+    }
+
+    /**
+     * Envía el evento a reintentos o a la DLQ según el error y los reintentos ya hechos.
+     */
+    public Mono<Route> route(Event<?, ?> event, Throwable cause, int attempt) {
+        return route(event, cause, isRetryable(cause), attempt);
+    }
+
+    /**
+     * @param event     El evento que falló.
+     * @param cause     El error.
+     * @param retryable Si el error puede resolverse reintentando.
+     * @param attempt   Reintentos ya hechos con el evento.
+     * @return Un Mono con el destino elegido; nunca termina con error.
+     */
+    public Mono<Route> route(Event<?, ?> event, Throwable cause, boolean retryable, int attempt) {
+        boolean retry = retryEnabled && retryable && attempt < retryDelaysMs.size();
+        long now = System.currentTimeMillis();
+
+        MessageBuilder<Event<?, ?>> message = MessageBuilder.<Event<?, ?>>withPayload(event)
+                .setHeader(EXCEPTION_CLASS_HEADER, cause.getClass().getName())
+                .setHeader(EXCEPTION_MESSAGE_HEADER, truncate(String.valueOf(cause.getMessage())))
+                .setHeader(FAILED_AT_HEADER, now)
+                .setHeader(ATTEMPT_HEADER, retry ? attempt + 1 : attempt);
+        if (retry) {
+            message.setHeader(NOT_BEFORE_HEADER, now + retryDelaysMs.get(attempt));
+        }
+        String destination = retry ? retryDestination : deadLetterDestination;
+        Route route = retry ? Route.RETRY : Route.DEAD_LETTER;
+
+        // StreamBridge espera la confirmación del envío, así que se ejecuta fuera del event loop.
+        return Mono.fromCallable(() -> streamBridge.send(destination, message.build()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(sent -> {
+                    if (!sent) {
+                        throw new EventProcessingException("El binder no aceptó el mensaje para " + destination);
+                    }
+                    LOGGER.warn("Evento {} con clave {} enviado a {} (reintentos: {}): {}",
+                            event.getEventType(), event.getKey(), destination, attempt, cause.toString());
+                    return route;
+                })
+                .onErrorResume(ex -> {
+                    LOGGER.error("No se pudo enviar a {} el evento {} con clave {}; el evento se pierde",
+                            destination, event.getEventType(), event.getKey(), ex);
+                    return Mono.just(Route.LOST);
+                });
+    }
+
+    /**
+     * Los eventos inválidos o de tipo desconocido fallarían igual en cada reintento.
+     */
+    public static boolean isRetryable(Throwable cause) {
+        return !(cause instanceof InvalidInputException
+                || cause instanceof EventProcessingException
+                || cause instanceof IllegalArgumentException);
+    }
+
+    public static int attemptOf(MessageHeaders headers) {
+        return (int) longHeader(headers, ATTEMPT_HEADER, 0);
+    }
+
+    public static long notBeforeOf(MessageHeaders headers) {
+        return longHeader(headers, NOT_BEFORE_HEADER, 0);
+    }
+
+    // Según el binder, las cabeceras numéricas pueden llegar como número, texto o bytes.
+    private static long longHeader(MessageHeaders headers, String name, long defaultValue) {
+        Object value = headers.get(name);
+        try {
+            if (value instanceof Number number) {
+                return number.longValue();
+            }
+            if (value instanceof byte[] bytes) {
+                return Long.parseLong(new String(bytes, StandardCharsets.UTF_8).trim());
+            }
+            if (value != null) {
+                return Long.parseLong(value.toString().trim());
+            }
+        } catch (NumberFormatException ex) {
+            LOGGER.warn("Cabecera {} inválida: {}", name, value);
+        }
+        return defaultValue;
+    }
+
+    private static String truncate(String value) {
+        return value.length() <= MAX_EXCEPTION_MESSAGE_LENGTH ? value : value.substring(0, MAX_EXCEPTION_MESSAGE_LENGTH);
+    }
+}
@@ -0,0 +1,60 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.messaging;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Cuenta los eventos que el messageProcessor recibió y todavía no terminó de procesar.
+ * Al perder particiones en un rebalanceo se espera a que llegue a cero, así otra instancia no empieza
+ * a procesar una clave mientras esta todavía tiene eventos anteriores de esa clave en sus carriles.
+ */
+@Component
+public class InFlightEvents {
+
+    private final Object lock = new Object();
+    private long count;
+
+    public void enter() {
+        synchronized (lock) {
+            count++;
+        }
+    }
+
+    public void exit() {
+        exit(1);
+    }
+
+    public void exit(int events) {
+        synchronized (lock) {
+            count = Math.max(0, count - events);
+            if (count == 0) {
+                lock.notifyAll();
+            }
+        }
+    }
+
+    public long count() {
+        synchronized (lock) {
+            return count;
+        }
+    }
+
+    /**
+     * Bloquea el hilo actual hasta que no queden eventos en proceso o se cumpla el tiempo.
+     * @return true si no quedan eventos en proceso.
+     */
+    public boolean awaitIdle(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (lock) {
+            while (count > 0) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                lock.wait(Math.max(1, remaining / 1_000_000));
+            }
+            return true;
+        }
+    }
+}
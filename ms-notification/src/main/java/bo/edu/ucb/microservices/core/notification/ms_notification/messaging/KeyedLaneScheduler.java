@@ -0,0 +1,65 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.messaging;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Reparte los elementos de un Flux en N carriles (lanes) según el hash de su clave.
+ * Cada carril se procesa en serie, por lo que los elementos con la misma clave conservan su orden,
+ * mientras que los carriles entre sí se procesan en paralelo.
+ * La concurrencia total queda acotada por el número de carriles.
+ */
+public class KeyedLaneScheduler {
+
+    private final int laneCount;
+    private final int laneQueueDepth;
+
+    /**
+     * @param laneCount      Número de carriles (máximo de elementos procesándose a la vez).
+     * @param laneQueueDepth Elementos que cada carril puede tener en cola antes de aplicar backpressure.
+     */
+    public KeyedLaneScheduler(int laneCount, int laneQueueDepth) {
+        if (laneCount < 1 || laneQueueDepth < 1) {
+            throw new IllegalArgumentException("laneCount y laneQueueDepth deben ser mayores a 0");
+        }
+        this.laneCount = laneCount;
+        this.laneQueueDepth = laneQueueDepth;
+    }
+
+    /**
+     * Agrupa los elementos en carriles y aplica el procesador a cada carril.
+     * @param source        Flujo de entrada.
+     * @param keyExtractor  Función que obtiene la clave de ordenamiento de cada elemento.
+     * @param laneProcessor Función que procesa en serie los elementos de un carril.
+     * @return Un Flux con los resultados de todos los carriles.
+     */
+    public <T, R> Flux<R> schedule(Flux<T> source, Function<T, ?> keyExtractor, Function<Flux<T>, Publisher<R>> laneProcessor) {
+        // groupBy con un número fijo de grupos y flatMap con concurrencia igual a ese número
+        // garantiza que todos los carriles estén suscritos y evita bloqueos por grupos sin consumir.
+        return source
+                .groupBy(item -> laneOf(keyExtractor.apply(item)), laneCount * laneQueueDepth)
+                .flatMap(lane -> laneProcessor.apply(lane.limitRate(laneQueueDepth)), laneCount);
+    }
+
+    /**
+     * Procesa cada elemento de un carril de forma secuencial con la función dada.
+     */
+    public <T, R> Flux<R> scheduleEach(Flux<T> source, Function<T, ?> keyExtractor, Function<T, Publisher<R>> processor) {
+        return schedule(source, keyExtractor, lane -> lane.concatMap(processor, laneQueueDepth));
+    }
+
+    int laneOf(Object key) {
+        return Math.floorMod(Objects.hashCode(key), laneCount);
+    }
+
+    public int getLaneCount() {
+        return laneCount;
+    }
+
+    public int getLaneQueueDepth() {
+        return laneQueueDepth;
+    }
+}
@@ -0,0 +1,220 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.messaging;
+
+import bo.edu.ucb.microservices.core.notification.ms_notification.model.OutboxMessage;
+import bo.edu.ucb.microservices.core.notification.ms_notification.services.LeaderLease;
+import bo.edu.ucb.microservices.dto.notification.NotificationDto;
+import bo.edu.ucb.microservices.util.events.Event;
+import bo.edu.ucb.microservices.util.events.EventPublisher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publica en el binder los cambios pendientes del outbox, en tandas.
+ * <p>
+ * Solo publica la instancia que tiene el lease '{@value #LEASE_NAME}'; lo renueva antes de cada tanda, así
+ * dos relays no publican ni intercalan los mismos cambios. El '_id' no sigue el orden de commit, así que
+ * cada tanda se completa con todos los mensajes pendientes de sus notificaciones y se publica ordenada por
+ * notificación y 'sequence'.
+ * <p>
+ * Entrega al menos una vez: un mensaje se elimina del outbox solo después de que el binder lo aceptó, así que
+ * una caída entre ambos pasos (o un cambio de dueño del lease) lo vuelve a publicar. Si un mensaje falla se
+ * conservan él y todos los siguientes, para no adelantar cambios posteriores de la misma notificación.
+ * <p>
+ * El retraso queda acotado por 'poll-interval-ms' cuando hay poca carga; con carga se encadenan tandas sin esperar.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OutboxRelay.class);
+
+    // Segundos desde que se escribió el mensaje pendiente más antiguo (0 si no hay pendientes).
+    public static final String LAG_GAUGE = "notification.outbox.lag";
+    // Mensajes pendientes (estimado de la colección).
+    public static final String PENDING_GAUGE = "notification.outbox.pending";
+    // Mensajes publicados y fallidos, tag 'outcome'.
+    public static final String PUBLISHED_COUNTER = "notification.outbox.published";
+
+    static final String LEASE_NAME = "notification-outbox-relay";
+
+    private static final Comparator<OutboxMessage> PUBLICATION_ORDER = Comparator
+            .comparingInt(OutboxMessage::getNotificationId)
+            .thenComparingLong(OutboxMessage::getSequence);
+
+    private final ReactiveMongoOperations mongoOperations;
+    private final LeaderLease lease;
+    private final boolean enabled;
+    private final String binding;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration leaseDuration;
+
+    private final AtomicLong lagSeconds = new AtomicLong();
+    private final AtomicLong pending = new AtomicLong();
+    private final Counter published;
+    private final Counter failed;
+
+    private final EventPublisher publisher;
+    private Disposable relaying;
+
+    @Autowired
+    public OutboxRelay(ReactiveMongoOperations mongoOperations, StreamBridge streamBridge, MeterRegistry registry,
+                       LeaderLease lease,
+                       @Value("${app.notification.outbox.enabled:false}") boolean enabled,
+                       @Value("${app.notification.outbox.binding:notificationChanges-out-0}") String binding,
+                       @Value("${app.notification.outbox.batch-size:500}") int batchSize,
+                       @Value("${app.notification.outbox.poll-interval-ms:500}") long pollIntervalMs,
+                       @Value("${app.notification.outbox.lease-seconds:30}") long leaseSeconds) {
+        this.mongoOperations = mongoOperations;
+        this.lease = lease;
+        this.enabled = enabled;
+        this.binding = binding;
+        this.batchSize = batchSize;
+        this.pollInterval = Duration.ofMillis(pollIntervalMs);
+        this.leaseDuration = Duration.ofSeconds(leaseSeconds);
+
+        Gauge.builder(LAG_GAUGE, lagSeconds, AtomicLong::get).baseUnit("seconds").register(registry);
+        Gauge.builder(PENDING_GAUGE, pending, AtomicLong::get).register(registry);
+        this.published = Counter.builder(PUBLISHED_COUNTER).tag("outcome", "published").register(registry);
+        this.failed = Counter.builder(PUBLISHED_COUNTER).tag("outcome", "failed").register(registry);
+        this.publisher = enabled
+                ? new EventPublisher(streamBridge, binding, null, batchSize, EventPublisher.DEFAULT_LINGER, batchSize * 2)
+                : null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startRelay() {
+        if (!enabled) {
+            return;
+        }
+        LOGGER.info("---- Relay del outbox hacia {} cada {}, tandas de {} ----", binding, pollInterval, batchSize);
+        // Una pasada a la vez: si una pasada tarda más que el intervalo, los ticks intermedios se descartan.
+        relaying = Flux.interval(Duration.ZERO, pollInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> relayOnce()
+                        .onErrorResume(ex -> {
+                            LOGGER.warn("Error publicando el outbox, se reintenta en la siguiente pasada", ex);
+                            return Mono.empty();
+                        }), 1)
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stopRelay() {
+        if (relaying != null) {
+            relaying.dispose();
+            lease.release(LEASE_NAME).block(Duration.ofSeconds(5));
+        }
+        if (publisher != null) {
+            publisher.close();
+        }
+    }
+
+    /**
+     * Publica tandas hasta vaciar el outbox, hasta que un mensaje falle o hasta perder el lease.
+     * @return Un Mono con la cantidad de mensajes publicados.
+     */
+    public Mono<Long> relayOnce() {
+        return leasedBatch()
+                .expand(batch -> batch.complete() && batch.read() >= batchSize ? leasedBatch() : Mono.empty())
+                .reduce(0L, (total, batch) -> total + batch.published())
+                .flatMap(total -> mongoOperations.estimatedCount(OutboxMessage.class)
+                        .doOnNext(pending::set)
+                        .thenReturn(total));
+    }
+
+    private Mono<BatchResult> leasedBatch() {
+        return lease.tryAcquire(LEASE_NAME, leaseDuration)
+                .flatMap(owned -> owned ? relayBatch() : Mono.empty());
+    }
+
+    private Mono<BatchResult> relayBatch() {
+        Query oldestFirst = new Query()
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .limit(batchSize);
+
+        return mongoOperations.find(oldestFirst, OutboxMessage.class)
+                .collectList()
+                .flatMap(this::withPendingOfSameNotifications)
+                .flatMap(batch -> {
+                    updateLag(batch);
+                    if (batch.isEmpty()) {
+                        return Mono.just(new BatchResult(0, 0, true));
+                    }
+                    // Todos se encolan a la vez en el publicador; flatMapSequential entrega los resultados en orden.
+                    return Flux.fromIterable(batch)
+                            .flatMapSequential(message -> publisher.publish(toEvent(message))
+                                    .thenReturn(true)
+                                    .onErrorResume(ex -> {
+                                        LOGGER.warn("No se pudo publicar el mensaje {} del outbox", message.getId(), ex);
+                                        return Mono.just(false);
+                                    }), batchSize)
+                            .collectList()
+                            .flatMap(results -> removePublished(batch, results));
+                });
+    }
+
+    // Un cambio anterior de la misma notificación puede tener un '_id' mayor y quedar fuera de la tanda:
+    // se leen todos los pendientes de esas notificaciones y se ordenan por secuencia.
+    private Mono<List<OutboxMessage>> withPendingOfSameNotifications(List<OutboxMessage> batch) {
+        if (batch.isEmpty()) {
+            return Mono.just(batch);
+        }
+        List<Integer> notificationIds = batch.stream().map(OutboxMessage::getNotificationId).distinct().toList();
+        return mongoOperations.find(Query.query(Criteria.where("notificationId").in(notificationIds)), OutboxMessage.class)
+                .collectSortedList(PUBLICATION_ORDER);
+    }
+
+    private Mono<BatchResult> removePublished(List<OutboxMessage> batch, List<Boolean> results) {
+        List<String> ids = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size() && results.get(i); i++) {
+            ids.add(batch.get(i).getId());
+        }
+        published.increment(ids.size());
+        failed.increment(batch.size() - ids.size());
+        boolean complete = ids.size() == batch.size();
+        if (ids.isEmpty()) {
+            return Mono.just(new BatchResult(batch.size(), 0, false));
+        }
+        return mongoOperations.remove(Query.query(Criteria.where("_id").in(ids)), OutboxMessage.class)
+                .thenReturn(new BatchResult(batch.size(), ids.size(), complete));
+    }
+
+    private void updateLag(List<OutboxMessage> batch) {
+        long oldest = batch.stream()
+                .filter(message -> message.getCreatedAt() != null)
+                .mapToLong(message -> message.getCreatedAt().getTime())
+                .min()
+                .orElse(System.currentTimeMillis());
+        lagSeconds.set(Math.max(0, (System.currentTimeMillis() - oldest) / 1000));
+    }
+
+    private static Event<Integer, NotificationDto> toEvent(OutboxMessage message) {
+        return new Event<>(message.getEventType(), message.getNotificationId(), message.getPayload());
+    }
+
+    private record BatchResult(int read, int published, boolean complete) {
+    }
+}
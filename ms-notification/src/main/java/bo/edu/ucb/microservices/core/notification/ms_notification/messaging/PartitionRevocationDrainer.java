@@ -0,0 +1,57 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.messaging;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.stream.binder.kafka.KafkaBindingRebalanceListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Con Kafka las particiones se reparten solas entre las instancias del grupo. Antes de entregar una partición
+ * revocada (y confirmar su offset) se terminan los eventos que ya entraron a los carriles; de lo contrario la
+ * instancia que la recibe podría aplicar un evento de una clave antes que los anteriores de esa misma clave.
+ * Solo se usa con el binder de Kafka; con RabbitMQ este bean no se invoca.
+ */
+@Component
+public class PartitionRevocationDrainer implements KafkaBindingRebalanceListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PartitionRevocationDrainer.class);
+
+    private final InFlightEvents inFlightEvents;
+    private final Duration drainTimeout;
+
+    public PartitionRevocationDrainer(InFlightEvents inFlightEvents,
+                                      @Value("${app.notification.consumer.rebalance.drain-timeout-ms:10000}") long drainTimeoutMs) {
+        this.inFlightEvents = inFlightEvents;
+        this.drainTimeout = Duration.ofMillis(drainTimeoutMs);
+    }
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(String bindingName, Consumer<?, ?> consumer,
+                                                Collection<TopicPartition> partitions) {
+        if (partitions.isEmpty()) {
+            return;
+        }
+        LOGGER.info("Binding {}: particiones revocadas {}, esperando {} eventos en proceso",
+                bindingName, partitions, inFlightEvents.count());
+        try {
+            if (!inFlightEvents.awaitIdle(drainTimeout)) {
+                LOGGER.warn("Binding {}: quedaron {} eventos en proceso tras {} ms; el orden por clave puede no mantenerse",
+                        bindingName, inFlightEvents.count(), drainTimeout.toMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(String bindingName, Consumer<?, ?> consumer,
+                                     Collection<TopicPartition> partitions, boolean initial) {
+        LOGGER.info("Binding {}: particiones asignadas {}", bindingName, partitions);
+    }
+}
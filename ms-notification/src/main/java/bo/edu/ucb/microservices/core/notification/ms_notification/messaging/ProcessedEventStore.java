@@ -0,0 +1,131 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.messaging;
+
+import bo.edu.ucb.microservices.core.notification.ms_notification.model.ProcessedEvent;
+import bo.edu.ucb.microservices.util.events.Event;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Registro de eventos ya procesados para consumir de forma idempotente.
+ * Guarda las identidades recientes en un conjunto en memoria acotado por tamaño y TTL y, opcionalmente,
+ * en la colección 'processed_events' para reconocer eventos vistos antes de un reinicio.
+ */
+@Component
+public class ProcessedEventStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProcessedEventStore.class);
+
+    private final ReactiveMongoOperations mongoOperations;
+    private final Cache<String, Boolean> recentEvents;
+    private final boolean enabled;
+    private final boolean mongoEnabled;
+    private final Duration mongoTtl;
+
+    @Autowired
+    public ProcessedEventStore(ReactiveMongoOperations mongoOperations,
+                               @Value("${app.notification.consumer.dedup.enabled:true}") boolean enabled,
+                               @Value("${app.notification.consumer.dedup.max-size:100000}") long maxSize,
+                               @Value("${app.notification.consumer.dedup.ttl-minutes:30}") long ttlMinutes,
+                               @Value("${app.notification.consumer.dedup.mongo.enabled:false}") boolean mongoEnabled,
+                               @Value("${app.notification.consumer.dedup.mongo.ttl-hours:168}") long mongoTtlHours) {
+        this.mongoOperations = mongoOperations;
+        this.enabled = enabled;
+        this.mongoEnabled = enabled && mongoEnabled;
+        this.mongoTtl = Duration.ofHours(mongoTtlHours);
+        this.recentEvents = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .build();
+    }
+
+    /**
+     * Índice TTL de 'processed_events'; lo crea MongoIndexInitializer al arrancar, junto con los demás índices.
+     * @return null si el registro en MongoDB está deshabilitado.
+     */
+    public IndexDefinition ttlIndex() {
+        return mongoEnabled ? new Index().on("processedAt", Sort.Direction.ASC).expire(mongoTtl) : null;
+    }
+
+    /**
+     * Indica si el evento ya fue procesado. Los eventos sin identidad nunca se consideran duplicados.
+     */
+    public Mono<Boolean> isDuplicate(Event<?, ?> event) {
+        EventIdentity identity = enabled ? EventIdentity.of(event) : null;
+        if (identity == null) {
+            return Mono.just(false);
+        }
+
+        String id = identity.asId();
+        if (recentEvents.getIfPresent(id) != null) {
+            return Mono.just(true);
+        }
+        if (!mongoEnabled) {
+            return Mono.just(false);
+        }
+
+        return mongoOperations.exists(Query.query(Criteria.where("_id").is(id)), ProcessedEvent.class)
+                .doOnNext(exists -> {
+                    if (exists) {
+                        recentEvents.put(id, Boolean.TRUE);
+                    }
+                });
+    }
+
+    /**
+     * Registra el evento como procesado.
+     */
+    public Mono<Void> markProcessed(Event<?, ?> event) {
+        return markProcessed(List.of(event));
+    }
+
+    /**
+     * Registra varios eventos como procesados; en MongoDB se escribe con un único bulk write.
+     */
+    public Mono<Void> markProcessed(Collection<? extends Event<?, ?>> events) {
+        if (!enabled) {
+            return Mono.empty();
+        }
+
+        List<String> ids = events.stream()
+                .map(EventIdentity::of)
+                .filter(Objects::nonNull)
+                .map(EventIdentity::asId)
+                .toList();
+        ids.forEach(id -> recentEvents.put(id, Boolean.TRUE));
+
+        if (!mongoEnabled || ids.isEmpty()) {
+            return Mono.empty();
+        }
+
+        Date now = new Date();
+        ReactiveBulkOperations bulkOps = mongoOperations.bulkOps(BulkMode.UNORDERED, ProcessedEvent.class);
+        ids.forEach(id -> bulkOps.upsert(Query.query(Criteria.where("_id").is(id)), new Update().setOnInsert("processedAt", now)));
+
+        // Si falla el registro en MongoDB, el evento ya se aplicó: se registra el error y se continúa.
+        return bulkOps.execute()
+                .doOnError(ex -> LOGGER.warn("No se pudieron registrar {} eventos procesados en MongoDB", ids.size(), ex))
+                .onErrorResume(ex -> Mono.empty())
+                .then();
+    }
+}
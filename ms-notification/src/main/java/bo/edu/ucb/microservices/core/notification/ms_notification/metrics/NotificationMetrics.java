@@ -0,0 +1,114 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.metrics;
+
+import bo.edu.ucb.microservices.util.events.Event;
+import bo.edu.ucb.microservices.util.exceptions.InvalidInputException;
+import bo.edu.ucb.microservices.util.exceptions.NotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+
+/**
+ * Métricas de las rutas calientes del servicio de notificaciones.
+ * Los timers se miden desde la suscripción hasta que el Mono/Flux termina (éxito, error o cancelación),
+ * que es cuando el trabajo reactivo realmente ocurre. Los percentiles se configuran en
+ * 'management.metrics.distribution' y se consultan en /actuator/metrics.
+ */
+@Component
+public class NotificationMetrics {
+
+    // Operaciones de NotificationService, tag 'operation'.
+    public static final String SERVICE_TIMER = "notification.service";
+    // Métodos de NotificationRepository, tag 'method'.
+    public static final String REPOSITORY_TIMER = "notification.repository";
+    // Eventos consumidos por messageProcessor, tags 'type' y 'outcome'.
+    public static final String EVENTS_COUNTER = "notification.events";
+    // Desde Event.getEventCreatedAt() hasta que la escritura terminó, tag 'type'.
+    public static final String EVENT_LATENCY_TIMER = "notification.events.latency";
+
+    private final MeterRegistry registry;
+
+    @Autowired
+    public NotificationMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public <T> Mono<T> timeService(String operation, Mono<T> mono) {
+        return time(SERVICE_TIMER, "operation", operation, mono);
+    }
+
+    public <T> Flux<T> timeService(String operation, Flux<T> flux) {
+        return time(SERVICE_TIMER, "operation", operation, flux);
+    }
+
+    public <T> Mono<T> timeRepository(String method, Mono<T> mono) {
+        return time(REPOSITORY_TIMER, "method", method, mono);
+    }
+
+    public <T> Flux<T> timeRepository(String method, Flux<T> flux) {
+        return time(REPOSITORY_TIMER, "method", method, flux);
+    }
+
+    /**
+     * Cuenta un evento procesado por messageProcessor y, si se aplicó, registra su latencia de punta a punta.
+     */
+    public void recordEvent(Event.Type type, String outcome, ZonedDateTime eventCreatedAt) {
+        String typeTag = type != null ? type.name() : "UNKNOWN";
+        Counter.builder(EVENTS_COUNTER)
+                .tags("type", typeTag, "outcome", outcome)
+                .register(registry)
+                .increment();
+        if (eventCreatedAt != null && "applied".equals(outcome)) {
+            Duration latency = Duration.between(eventCreatedAt, ZonedDateTime.now());
+            // Relojes desfasados entre productor y consumidor pueden dar valores negativos.
+            if (!latency.isNegative()) {
+                Timer.builder(EVENT_LATENCY_TIMER)
+                        .tag("type", typeTag)
+                        .register(registry)
+                        .record(latency);
+            }
+        }
+    }
+
+    private <T> Mono<T> time(String name, String tagKey, String tagValue, Mono<T> mono) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(registry);
+            return mono
+                    .doOnSuccess(value -> stop(sample, name, tagKey, tagValue, "success"))
+                    .doOnError(ex -> stop(sample, name, tagKey, tagValue, outcomeOf(ex)))
+                    .doOnCancel(() -> stop(sample, name, tagKey, tagValue, "cancelled"));
+        });
+    }
+
+    private <T> Flux<T> time(String name, String tagKey, String tagValue, Flux<T> flux) {
+        return Flux.defer(() -> {
+            Timer.Sample sample = Timer.start(registry);
+            return flux
+                    .doOnComplete(() -> stop(sample, name, tagKey, tagValue, "success"))
+                    .doOnError(ex -> stop(sample, name, tagKey, tagValue, outcomeOf(ex)))
+                    .doOnCancel(() -> stop(sample, name, tagKey, tagValue, "cancelled"));
+        });
+    }
+
+    private void stop(Timer.Sample sample, String name, String tagKey, String tagValue, String outcome) {
+        sample.stop(Timer.builder(name)
+                .tags(tagKey, tagValue, "outcome", outcome)
+                .register(registry));
+    }
+
+    private static String outcomeOf(Throwable ex) {
+        if (ex instanceof NotFoundException) {
+            return "not_found";
+        }
+        if (ex instanceof InvalidInputException) {
+            return "invalid";
+        }
+        return "error";
+    }
+}
@@ -0,0 +1,34 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Mide cada llamada a un repositorio reactivo. La métrica de repositorios de Spring Boot solo mide
+ * la invocación del método, que en un repositorio reactivo es solo el armado del Mono/Flux;
+ * aquí se mide hasta que la consulta termina.
+ */
+public class RepositoryMetricsInterceptor implements MethodInterceptor {
+
+    private final ObjectProvider<NotificationMetrics> metrics;
+
+    public RepositoryMetricsInterceptor(ObjectProvider<NotificationMetrics> metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        String method = invocation.getMethod().getName();
+        if (result instanceof Mono<?> mono) {
+            return metrics.getObject().timeRepository(method, mono);
+        }
+        if (result instanceof Flux<?> flux) {
+            return metrics.getObject().timeRepository(method, flux);
+        }
+        return result;
+    }
+}
@@ -2,12 +2,23 @@ package bo.edu.ucb.microservices.core.notification.ms_notification.model;
 
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.TextScore;
 import java.util.Date;
 
 // 1. @Document le dice a Spring que esta clase representa un documento en la colección "notifications" de MongoDB.
-@Document(collection = "notifications")
+//    El idioma "spanish" se usa en el índice de texto para aplicar stemming y palabras vacías en español.
+@Document(collection = "notifications", language = "spanish")
+// Índices para los patrones de acceso reales: listados por usuario y por estado paginados por _id
+// (de más nuevo a más antiguo), y búsquedas por fecha de creación.
+@CompoundIndexes({
+        @CompoundIndex(name = "userId_id", def = "{'userId': 1, '_id': -1}"),
+        @CompoundIndex(name = "status_id", def = "{'status': 1, '_id': -1}")
+})
 public class Notification {
 
     // 2. @Id marca este campo como la clave primaria del documento. MongoDB lo generará automáticamente.
@@ -25,14 +36,22 @@ public class Notification {
     private int notificationId;
 
     // --- Campos de tu NotificationDto ---
+    // @TextIndexed los incluye en el índice de texto de la colección; el título pesa el doble en la relevancia.
+    @TextIndexed(weight = 2)
     private String titulo;
+    @TextIndexed
     private String mensaje;
 
     // --- Campos adicionales útiles para un sistema de notificación ---
     private Integer userId; // Para saber a qué usuario pertenece la notificación
     private String status;  // Podría ser "ENVIADO", "LEIDO", "ARCHIVADO", etc.
+    @Indexed
     private Date creationDate; // Para saber cuándo se creó
 
+    // Relevancia calculada por MongoDB en las búsquedas de texto; no se guarda en el documento.
+    @TextScore
+    private Float score;
+
     // --- Constructores ---
     public Notification() {
     }
@@ -111,4 +130,12 @@ public class Notification {
     public void setCreationDate(Date creationDate) {
         this.creationDate = creationDate;
     }
+
+    public Float getScore() {
+        return score;
+    }
+
+    public void setScore(Float score) {
+        this.score = score;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Contadores de notificaciones de un usuario. Se mantienen con $inc en cada escritura,
+ * así leerlos cuesta un findById sin importar cuántas notificaciones tenga la colección.
+ */
+@Document(collection = "notification_counters")
+public class NotificationCounter {
+
+    // El _id del documento es el ID del usuario.
+    @Id
+    private Integer userId;
+
+    private long total;
+
+    // Cantidad por estado, p. ej. {"ENVIADO": 3, "LEIDO": 9}.
+    private Map<String, Long> byStatus = new HashMap<>();
+
+    // Se incrementa en cada cambio; permite descartar en la caché un resultado más viejo que llega tarde.
+    private long revision;
+
+    public NotificationCounter() {
+    }
+
+    public NotificationCounter(Integer userId) {
+        this.userId = userId;
+    }
+
+    public long countFor(String status) {
+        Long count = byStatus != null ? byStatus.get(status) : null;
+        return count != null ? count : 0;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Integer userId) {
+        this.userId = userId;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public Map<String, Long> getByStatus() {
+        return byStatus;
+    }
+
+    public void setByStatus(Map<String, Long> byStatus) {
+        this.byStatus = byStatus;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(long revision) {
+        this.revision = revision;
+    }
+}
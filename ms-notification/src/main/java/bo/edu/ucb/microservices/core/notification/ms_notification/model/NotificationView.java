@@ -0,0 +1,26 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.model;
+
+import bo.edu.ucb.microservices.dto.notification.NotificationDto;
+
+/**
+ * Vista inmutable de una notificación para las lecturas.
+ * Al ser inmutable se puede compartir desde la caché sin copiar la entidad; cada lectura
+ * arma su propio {@link NotificationDto}.
+ * También es el modelo de lectura proyectado: los nombres de los componentes coinciden con los campos
+ * de {@link Notification}, así los repositorios pueden pedir a MongoDB solo estos campos.
+ */
+public record NotificationView(String id, Integer version, int notificationId, String titulo, String mensaje,
+                               Integer userId, String status) {
+
+    public static NotificationView from(Notification entity) {
+        return new NotificationView(entity.getId(), entity.getVersion(), entity.getNotificationId(),
+                entity.getTitulo(), entity.getMensaje(), entity.getUserId(), entity.getStatus());
+    }
+
+    public NotificationDto toDto() {
+        NotificationDto dto = new NotificationDto(notificationId, titulo, mensaje);
+        dto.setUserId(userId);
+        dto.setStatus(status);
+        return dto;
+    }
+}
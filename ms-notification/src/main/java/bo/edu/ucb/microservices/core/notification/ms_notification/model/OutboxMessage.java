@@ -0,0 +1,95 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.model;
+
+import bo.edu.ucb.microservices.dto.notification.NotificationDto;
+import bo.edu.ucb.microservices.util.events.Event;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * Cambio de estado de una notificación pendiente de publicar.
+ * Se inserta en la misma transacción que el cambio y el relay lo elimina cuando el binder lo aceptó.
+ * 'sequence' numera los cambios de cada notificación en orden de commit; el relay publica en ese orden.
+ */
+@Document(collection = OutboxMessage.COLLECTION)
+// El relay lee los pendientes de varias notificaciones y los publica en orden de secuencia.
+@CompoundIndex(name = "notificationId_sequence", def = "{'notificationId': 1, 'sequence': 1}")
+public class OutboxMessage {
+
+    public static final String COLLECTION = "notifications_outbox";
+
+    @Id
+    private String id;
+
+    private Event.Type eventType;
+
+    private int notificationId;
+
+    private long sequence;
+
+    // Para DELETE solo trae IDs, usuario y estado.
+    private NotificationDto payload;
+
+    private Date createdAt;
+
+    public OutboxMessage() {
+    }
+
+    public OutboxMessage(Event.Type eventType, int notificationId, long sequence, NotificationDto payload, Date createdAt) {
+        this.eventType = eventType;
+        this.notificationId = notificationId;
+        this.sequence = sequence;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Event.Type getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(Event.Type eventType) {
+        this.eventType = eventType;
+    }
+
+    public int getNotificationId() {
+        return notificationId;
+    }
+
+    public void setNotificationId(int notificationId) {
+        this.notificationId = notificationId;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public NotificationDto getPayload() {
+        return payload;
+    }
+
+    public void setPayload(NotificationDto payload) {
+        this.payload = payload;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,44 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * Identidad de un evento ya procesado por el messageProcessor.
+ * Permite descartar eventos reentregados después de un reinicio; un índice TTL sobre
+ * 'processedAt' elimina los registros antiguos.
+ */
+@Document(collection = "processed_events")
+public class ProcessedEvent {
+
+    @Id
+    private String id;
+
+    private Date processedAt;
+
+    public ProcessedEvent() {
+    }
+
+    public ProcessedEvent(String id, Date processedAt) {
+        this.id = id;
+        this.processedAt = processedAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Date getProcessedAt() {
+        return processedAt;
+    }
+
+    public void setProcessedAt(Date processedAt) {
+        this.processedAt = processedAt;
+    }
+}
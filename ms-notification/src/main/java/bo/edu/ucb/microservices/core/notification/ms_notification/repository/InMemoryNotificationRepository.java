@@ -0,0 +1,793 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.repository;
+
+import bo.edu.ucb.microservices.core.notification.ms_notification.model.Notification;
+import bo.edu.ucb.microservices.core.notification.ms_notification.model.NotificationView;
+import org.bson.types.ObjectId;
+import org.reactivestreams.Publisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Implementación en memoria de {@link NotificationRepository} para pruebas de carga sin MongoDB
+ * (perfil 'in-memory'). Reproduce lo que el servicio espera de la colección:
+ * <ul>
+ *     <li>_id generado como ObjectId; los documentos se recorren en el mismo orden que el índice de _id.</li>
+ *     <li>Índice único de 'notificationId' ({@link DuplicateKeyException} si se repite).</li>
+ *     <li>Bloqueo optimista de '@Version' en save ({@link OptimisticLockingFailureException} si la versión no coincide).</li>
+ *     <li>Las consultas derivadas, las operaciones de {@link NotificationRepositoryCustom} y el archivo.</li>
+ * </ul>
+ * Los documentos guardados no se modifican nunca: cada escritura reemplaza el documento por una copia nueva
+ * de forma atómica, y hacia afuera solo se entregan copias. Las consultas por usuario, estado y fecha de creación
+ * (archivado) y las eliminaciones masivas usan índices secundarios, igual que el archivo por notificationId,
+ * usuario y estado; findAll y la búsqueda de texto sin usuario recorren la colección. Los índices se actualizan
+ * después de cada reemplazo, así que cada candidato se vuelve a comprobar contra el documento actual.
+ * La búsqueda de texto es una aproximación sin stemming ni palabras vacías.
+ */
+@Repository
+@Profile("in-memory")
+public class InMemoryNotificationRepository implements NotificationRepository {
+
+    // _id -> documento, ordenado como el índice de _id (los ObjectId en hexadecimal se ordenan igual que en MongoDB).
+    private final ConcurrentSkipListMap<String, Notification> documents = new ConcurrentSkipListMap<>();
+    // Índice único: notificationId -> _id.
+    private final Map<Integer, String> idsByNotificationId = new ConcurrentHashMap<>();
+    // Índices secundarios: userId y status -> _id de sus notificaciones; creationDate para el archivado.
+    private final IdIndex<Integer> idsByUserId = new IdIndex<>();
+    private final IdIndex<String> idsByStatus = new IdIndex<>();
+    private final ConcurrentSkipListSet<DatedId> idsByCreationDate = new ConcurrentSkipListSet<>();
+    // Colección de archivo con sus índices; el notificationId no es único aquí.
+    private final ConcurrentSkipListMap<String, Notification> archive = new ConcurrentSkipListMap<>();
+    private final IdIndex<Integer> archivedIdsByNotificationId = new IdIndex<>();
+    private final IdIndex<Integer> archivedIdsByUserId = new IdIndex<>();
+    private final IdIndex<String> archivedIdsByStatus = new IdIndex<>();
+
+    // --- ReactiveCrudRepository ---
+
+    @Override
+    public <S extends Notification> Mono<S> save(S entity) {
+        return Mono.fromCallable(() -> entity.getVersion() == null ? insertDocument(entity) : replaceDocument(entity));
+    }
+
+    @Override
+    public <S extends Notification> Flux<S> saveAll(Iterable<S> entities) {
+        return Flux.fromIterable(entities).concatMap(this::save);
+    }
+
+    @Override
+    public <S extends Notification> Flux<S> saveAll(Publisher<S> entityStream) {
+        return Flux.from(entityStream).concatMap(this::save);
+    }
+
+    @Override
+    public Mono<Notification> findById(String id) {
+        return Mono.fromSupplier(() -> copy(documents.get(id)));
+    }
+
+    @Override
+    public Mono<Notification> findById(Publisher<String> id) {
+        return Mono.from(id).flatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(String id) {
+        return Mono.fromSupplier(() -> documents.containsKey(id));
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Publisher<String> id) {
+        return Mono.from(id).flatMap(this::existsById);
+    }
+
+    @Override
+    public Flux<Notification> findAll() {
+        return scan(documents.values(), notification -> true);
+    }
+
+    @Override
+    public Flux<Notification> findAll(Sort sort) {
+        if (sort.isUnsorted()) {
+            return findAll();
+        }
+        return Flux.defer(() -> Flux.fromStream(documents.values().stream()
+                .sorted(comparator(sort))
+                .map(InMemoryNotificationRepository::copy)));
+    }
+
+    @Override
+    public Flux<Notification> findAllById(Iterable<String> ids) {
+        return Flux.fromIterable(ids).concatMap(this::findById);
+    }
+
+    @Override
+    public Flux<Notification> findAllById(Publisher<String> idStream) {
+        return Flux.from(idStream).concatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return Mono.fromSupplier(() -> (long) documents.size());
+    }
+
+    @Override
+    public Mono<Void> deleteById(String id) {
+        return Mono.fromRunnable(() -> removeDocument(id));
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<String> id) {
+        return Mono.from(id).flatMap(this::deleteById);
+    }
+
+    @Override
+    public Mono<Void> delete(Notification entity) {
+        return deleteById(entity.getId());
+    }
+
+    @Override
+    public Mono<Void> deleteAllById(Iterable<? extends String> ids) {
+        return Mono.fromRunnable(() -> ids.forEach(this::removeDocument));
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends Notification> entities) {
+        return Mono.fromRunnable(() -> entities.forEach(entity -> removeDocument(entity.getId())));
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends Notification> entityStream) {
+        return Flux.from(entityStream).concatMap(this::delete).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return Mono.fromRunnable(() -> documents.keySet().forEach(this::removeDocument));
+    }
+
+    // --- Consultas derivadas de NotificationRepository ---
+
+    @Override
+    public Flux<Notification> findByUserId(Integer userId) {
+        return scan(documentsOfUser(userId), notification -> true);
+    }
+
+    @Override
+    public Flux<Notification> findByStatus(String status) {
+        return Flux.defer(() -> Flux.fromStream(idsByStatus.get(status).stream()
+                .map(documents::get)
+                .filter(notification -> notification != null && Objects.equals(notification.getStatus(), status))
+                .map(InMemoryNotificationRepository::copy)));
+    }
+
+    @Override
+    @Deprecated
+    public Flux<Notification> findByMessageContaining(String keyword) {
+        // Misma semántica que el $regex con la opción 'i' de la consulta original.
+        return Flux.defer(() -> {
+            Pattern pattern = Pattern.compile(keyword, Pattern.CASE_INSENSITIVE);
+            return scan(documents.values(),
+                    notification -> notification.getMensaje() != null && pattern.matcher(notification.getMensaje()).find());
+        });
+    }
+
+    @Override
+    public Mono<Notification> findByNotificationId(int notificationId) {
+        return Mono.fromSupplier(() -> copy(byNotificationId(notificationId)));
+    }
+
+    @Override
+    public Mono<NotificationView> findViewByNotificationId(int notificationId) {
+        return Mono.fromSupplier(() -> view(byNotificationId(notificationId)));
+    }
+
+    @Override
+    public Mono<NotificationView> findViewById(String id) {
+        return Mono.fromSupplier(() -> view(documents.get(id)));
+    }
+
+    @Override
+    public Flux<NotificationView> findViewsByNotificationIdIn(Collection<Integer> notificationIds) {
+        return Flux.defer(() -> Flux.fromStream(notificationIds.stream()
+                .distinct()
+                .map(this::byNotificationId)
+                .filter(Objects::nonNull)
+                .map(NotificationView::from)));
+    }
+
+    // --- NotificationRepositoryCustom ---
+
+    @Override
+    public Flux<NotificationBulkResult> bulkWrite(List<NotificationBulkCommand> commands) {
+        return Flux.defer(() -> {
+            List<NotificationBulkResult> results = new ArrayList<>(commands.size());
+            for (NotificationBulkCommand command : commands) {
+                if (command.type() == NotificationBulkCommand.Type.DELETE) {
+                    // Igual que en MongoDB, borrar algo que no existe no es un error.
+                    removeByNotificationId(command.notificationId());
+                    results.add(NotificationBulkResult.applied(command));
+                    continue;
+                }
+                try {
+                    insertDocument(command.entity());
+                    results.add(NotificationBulkResult.applied(command));
+                } catch (DuplicateKeyException ex) {
+                    results.add(new NotificationBulkResult(command.notificationId(), command.type(),
+                            NotificationBulkResult.Outcome.DUPLICATE_KEY, ex.getMessage()));
+                }
+            }
+            return Flux.fromIterable(results);
+        });
+    }
+
+    @Override
+    public Mono<NotificationUpdate> updateByNotificationId(int notificationId, NotificationChanges changes,
+                                                           Collection<Integer> expectedVersions) {
+        return Mono.fromSupplier(() -> {
+            String id = idsByNotificationId.get(notificationId);
+            return id != null ? updateDocument(id, changes, expectedVersions) : null;
+        });
+    }
+
+    @Override
+    public Mono<NotificationUpdate> updateById(String id, NotificationChanges changes, Collection<Integer> expectedVersions) {
+        return Mono.fromSupplier(() -> updateDocument(id, changes, expectedVersions));
+    }
+
+    @Override
+    public Mono<Integer> findVersionByNotificationId(int notificationId) {
+        return Mono.fromSupplier(() -> versionOf(byNotificationId(notificationId)));
+    }
+
+    @Override
+    public Mono<Integer> findVersionById(String id) {
+        return Mono.fromSupplier(() -> versionOf(documents.get(id)));
+    }
+
+    @Override
+    public Mono<Notification> findAndRemoveByNotificationId(int notificationId) {
+        return Mono.fromSupplier(() -> copy(removeByNotificationId(notificationId)));
+    }
+
+    @Override
+    public Mono<Notification> findAndRemoveById(String id) {
+        return Mono.fromSupplier(() -> copy(removeDocument(id)));
+    }
+
+    @Override
+    public Flux<Notification> findRemovable(Collection<Integer> notificationIds, Integer userId, String status, int limit) {
+        // Los candidatos ya salen en orden de _id: no hace falta ordenar, basta con cortar en 'limit'.
+        return Flux.defer(() -> Flux.fromStream(removalCandidates(notificationIds, userId, status).stream()
+                .map(documents::get)
+                .filter(notification -> notification != null && matches(notification, notificationIds, userId, status))
+                .limit(limit)
+                .map(InMemoryNotificationRepository::copy)));
+    }
+
+    @Override
+    public Mono<Long> deleteRemovable(List<String> ids, Collection<Integer> notificationIds, Integer userId, String status) {
+        return Mono.fromSupplier(() -> {
+            long deleted = 0;
+            for (String id : ids) {
+                Notification notification = documents.get(id);
+                // Solo se elimina si todavía cumple los criterios y nadie lo reemplazó mientras tanto.
+                if (notification != null && matches(notification, notificationIds, userId, status)
+                        && removeIfUnchanged(notification)) {
+                    deleted++;
+                }
+            }
+            return deleted;
+        });
+    }
+
+    @Override
+    public Flux<NotificationView> findPage(Integer userId, String status, String beforeId, int limit) {
+        return Flux.defer(() -> {
+            Stream<Notification> newestFirst;
+            if (userId != null) {
+                newestFirst = descendingIds(idsByUserId.get(userId), beforeId).map(documents::get);
+            } else {
+                newestFirst = (beforeId != null ? documents.headMap(beforeId, false) : documents)
+                        .descendingMap().values().stream();
+            }
+            return Flux.fromStream(newestFirst
+                    .filter(Objects::nonNull)
+                    .filter(notification -> status == null || status.equals(notification.getStatus()))
+                    .limit(limit)
+                    .map(NotificationView::from));
+        });
+    }
+
+    @Override
+    public Flux<Notification> searchText(String text, Integer userId, int page, int size) {
+        return Flux.defer(() -> {
+            TextSearch search = TextSearch.parse(text);
+            Collection<Notification> candidates = userId != null ? documentsOfUser(userId) : documents.values();
+            List<Notification> found = new ArrayList<>();
+            for (Notification notification : candidates) {
+                float score = search.score(notification);
+                if (score > 0) {
+                    Notification result = copy(notification);
+                    result.setScore(score);
+                    found.add(result);
+                }
+            }
+            found.sort(Comparator.comparing(Notification::getScore).reversed());
+            return Flux.fromStream(found.stream().skip((long) page * size).limit(size));
+        });
+    }
+
+    @Override
+    public Flux<Notification> findArchivable(Date createdBefore, Collection<String> terminalStatuses, int limit) {
+        if (createdBefore == null && (terminalStatuses == null || terminalStatuses.isEmpty())) {
+            return Flux.empty();
+        }
+        return Flux.defer(() -> {
+            // Primero las más antiguas por el índice de creationDate; luego las de cada estado terminal.
+            Stream<String> old = createdBefore != null
+                    ? idsByCreationDate.headSet(new DatedId(createdBefore.getTime(), "")).stream().map(DatedId::id)
+                    : Stream.empty();
+            Stream<String> terminal = terminalStatuses != null
+                    ? terminalStatuses.stream().flatMap(status -> idsByStatus.get(status).stream())
+                    : Stream.empty();
+            return Flux.fromStream(Stream.concat(old, terminal)
+                    .distinct()
+                    .map(documents::get)
+                    .filter(notification -> notification != null
+                            && ((createdBefore != null && notification.getCreationDate() != null
+                            && notification.getCreationDate().before(createdBefore))
+                            || (terminalStatuses != null && terminalStatuses.contains(notification.getStatus()))))
+                    .limit(limit)
+                    .map(InMemoryNotificationRepository::copy));
+        });
+    }
+
+    @Override
+    public Flux<Notification> moveToArchive(List<Notification> batch) {
+        return Flux.defer(() -> {
+            List<Notification> moved = new ArrayList<>(batch.size());
+            for (Notification notification : batch) {
+                Notification archived = copy(notification);
+                putArchived(archived);
+                // Solo se elimina de la colección principal si la versión no cambió desde que se leyó.
+                Notification current = documents.get(notification.getId());
+                if (current != null && Objects.equals(current.getVersion(), notification.getVersion())
+                        && removeIfUnchanged(current)) {
+                    moved.add(notification);
+                } else if (documents.containsKey(notification.getId())) {
+                    // Sigue en la colección principal con otra versión; si ya no está, la copia se conserva.
+                    removeArchived(archived);
+                }
+            }
+            return Flux.fromIterable(moved);
+        });
+    }
+
+    @Override
+    public Mono<NotificationView> findArchivedViewByNotificationId(int notificationId) {
+        return Mono.fromSupplier(() -> archivedIdsByNotificationId.get(notificationId).stream()
+                .map(archive::get)
+                .filter(notification -> notification != null && notification.getNotificationId() == notificationId)
+                .findFirst()
+                .map(NotificationView::from)
+                .orElse(null));
+    }
+
+    @Override
+    public Mono<NotificationView> findArchivedViewById(String id) {
+        return Mono.fromSupplier(() -> view(archive.get(id)));
+    }
+
+    @Override
+    public Mono<Long> deleteArchivedByNotificationId(int notificationId) {
+        return deleteArchivedMatching(List.of(notificationId), null, null);
+    }
+
+    @Override
+    public Mono<Long> deleteArchivedById(String id) {
+        return Mono.fromSupplier(() -> {
+            Notification removed = archive.remove(id);
+            if (removed == null) {
+                return 0L;
+            }
+            unindexArchived(removed);
+            return 1L;
+        });
+    }
+
+    @Override
+    public Mono<Long> deleteArchivedMatching(Collection<Integer> notificationIds, Integer userId, String status) {
+        return Mono.fromSupplier(() -> archivedCandidates(notificationIds, userId, status).stream()
+                .map(archive::get)
+                .filter(notification -> notification != null && matches(notification, notificationIds, userId, status))
+                .filter(this::removeArchived)
+                .count());
+    }
+
+    // --- Almacenamiento ---
+
+    private <S extends Notification> S insertDocument(S entity) {
+        String id = entity.getId() != null ? entity.getId() : ObjectId.get().toHexString();
+        if (idsByNotificationId.putIfAbsent(entity.getNotificationId(), id) != null) {
+            throw duplicateKey(entity.getNotificationId());
+        }
+
+        Notification stored = copy(entity);
+        stored.setId(id);
+        stored.setVersion(0);
+        if (documents.putIfAbsent(id, stored) != null) {
+            idsByNotificationId.remove(entity.getNotificationId(), id);
+            throw new DuplicateKeyException("Llave duplicada en el índice _id: " + id);
+        }
+        index(stored);
+
+        // Igual que MongoTemplate, se completan el _id y la versión en la entidad recibida.
+        entity.setId(id);
+        entity.setVersion(0);
+        return entity;
+    }
+
+    private <S extends Notification> S replaceDocument(S entity) {
+        String id = entity.getId();
+        while (true) {
+            Notification current = id != null ? documents.get(id) : null;
+            if (current == null || !Objects.equals(current.getVersion(), entity.getVersion())) {
+                throw new OptimisticLockingFailureException("No se pudo guardar la notificación " + id
+                        + " con versión " + entity.getVersion() + ": fue modificada o eliminada");
+            }
+
+            // Si cambia el ID de negocio, se toma el nuevo en el índice único antes de reemplazar el documento.
+            boolean notificationIdChanged = current.getNotificationId() != entity.getNotificationId();
+            if (notificationIdChanged && idsByNotificationId.putIfAbsent(entity.getNotificationId(), id) != null) {
+                throw duplicateKey(entity.getNotificationId());
+            }
+
+            Notification next = copy(entity);
+            next.setVersion(current.getVersion() + 1);
+            if (!documents.replace(id, current, next)) {
+                // Otra escritura ganó la carrera: se libera el índice y se vuelve a comprobar la versión.
+                if (notificationIdChanged) {
+                    idsByNotificationId.remove(entity.getNotificationId(), id);
+                }
+                continue;
+            }
+
+            if (notificationIdChanged) {
+                idsByNotificationId.remove(current.getNotificationId(), id);
+            }
+            reindex(current, next);
+            entity.setVersion(next.getVersion());
+            return entity;
+        }
+    }
+
+    // Igual que replaceDocument: se lee, se compara la versión y se reemplaza solo si nadie escribió en medio.
+    // Si otra escritura gana, se vuelve a leer y a comparar con la versión que dejó.
+    private NotificationUpdate updateDocument(String id, NotificationChanges changes, Collection<Integer> expectedVersions) {
+        while (true) {
+            Notification current = documents.get(id);
+            if (current == null || (expectedVersions != null && !expectedVersions.contains(versionOf(current)))) {
+                return null;
+            }
+            Notification next = copy(current);
+            next.setTitulo(changes.titulo());
+            next.setMensaje(changes.mensaje());
+            if (changes.status() != null) {
+                next.setStatus(changes.status());
+            }
+            next.setVersion(current.getVersion() != null ? current.getVersion() + 1 : 1);
+            if (documents.replace(id, current, next)) {
+                reindex(current, next);
+                return new NotificationUpdate(copy(current), copy(next));
+            }
+        }
+    }
+
+    private static Integer versionOf(Notification notification) {
+        if (notification == null) {
+            return null;
+        }
+        return notification.getVersion() != null ? notification.getVersion() : 0;
+    }
+
+    private Notification removeByNotificationId(int notificationId) {
+        String id = idsByNotificationId.get(notificationId);
+        return id != null ? removeDocument(id) : null;
+    }
+
+    private Notification removeDocument(String id) {
+        Notification removed = documents.remove(id);
+        if (removed != null) {
+            idsByNotificationId.remove(removed.getNotificationId(), id);
+            unindex(removed);
+        }
+        return removed;
+    }
+
+    // Elimina el documento solo si sigue siendo exactamente el que se leyó.
+    private boolean removeIfUnchanged(Notification expected) {
+        if (!documents.remove(expected.getId(), expected)) {
+            return false;
+        }
+        idsByNotificationId.remove(expected.getNotificationId(), expected.getId());
+        unindex(expected);
+        return true;
+    }
+
+    private Notification byNotificationId(int notificationId) {
+        String id = idsByNotificationId.get(notificationId);
+        return id != null ? documents.get(id) : null;
+    }
+
+    private Collection<Notification> documentsOfUser(Integer userId) {
+        return descendingIds(idsByUserId.get(userId), null)
+                .map(documents::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private static Stream<String> descendingIds(NavigableSet<String> ids, String beforeId) {
+        return (beforeId != null ? ids.headSet(beforeId, false) : ids).descendingSet().stream();
+    }
+
+    // _id que pueden cumplir los criterios, en orden ascendente, tomados del índice más selectivo.
+    private NavigableSet<String> removalCandidates(Collection<Integer> notificationIds, Integer userId, String status) {
+        if (notificationIds != null && !notificationIds.isEmpty()) {
+            NavigableSet<String> ids = new TreeSet<>();
+            for (Integer notificationId : notificationIds) {
+                String id = idsByNotificationId.get(notificationId);
+                if (id != null) {
+                    ids.add(id);
+                }
+            }
+            return ids;
+        }
+        if (userId != null) {
+            return idsByUserId.get(userId);
+        }
+        return status != null ? idsByStatus.get(status) : documents.keySet();
+    }
+
+    private NavigableSet<String> archivedCandidates(Collection<Integer> notificationIds, Integer userId, String status) {
+        if (notificationIds != null && !notificationIds.isEmpty()) {
+            NavigableSet<String> ids = new TreeSet<>();
+            notificationIds.forEach(notificationId -> ids.addAll(archivedIdsByNotificationId.get(notificationId)));
+            return ids;
+        }
+        if (userId != null) {
+            return archivedIdsByUserId.get(userId);
+        }
+        return status != null ? archivedIdsByStatus.get(status) : archive.keySet();
+    }
+
+    private void index(Notification notification) {
+        idsByUserId.add(notification.getUserId(), notification.getId());
+        idsByStatus.add(notification.getStatus(), notification.getId());
+        if (notification.getCreationDate() != null) {
+            idsByCreationDate.add(new DatedId(notification.getCreationDate().getTime(), notification.getId()));
+        }
+    }
+
+    private void unindex(Notification notification) {
+        idsByUserId.remove(notification.getUserId(), notification.getId());
+        idsByStatus.remove(notification.getStatus(), notification.getId());
+        if (notification.getCreationDate() != null) {
+            idsByCreationDate.remove(new DatedId(notification.getCreationDate().getTime(), notification.getId()));
+        }
+    }
+
+    private void reindex(Notification previous, Notification current) {
+        if (!Objects.equals(previous.getUserId(), current.getUserId())
+                || !Objects.equals(previous.getStatus(), current.getStatus())
+                || !Objects.equals(previous.getCreationDate(), current.getCreationDate())) {
+            unindex(previous);
+            index(current);
+        }
+    }
+
+    private void putArchived(Notification notification) {
+        Notification previous = archive.put(notification.getId(), notification);
+        if (previous != null) {
+            unindexArchived(previous);
+        }
+        archivedIdsByNotificationId.add(notification.getNotificationId(), notification.getId());
+        archivedIdsByUserId.add(notification.getUserId(), notification.getId());
+        archivedIdsByStatus.add(notification.getStatus(), notification.getId());
+    }
+
+    // Elimina la copia archivada solo si sigue siendo la misma.
+    private boolean removeArchived(Notification expected) {
+        if (!archive.remove(expected.getId(), expected)) {
+            return false;
+        }
+        unindexArchived(expected);
+        return true;
+    }
+
+    private void unindexArchived(Notification notification) {
+        archivedIdsByNotificationId.remove(notification.getNotificationId(), notification.getId());
+        archivedIdsByUserId.remove(notification.getUserId(), notification.getId());
+        archivedIdsByStatus.remove(notification.getStatus(), notification.getId());
+    }
+
+    private static Flux<Notification> scan(Collection<Notification> source, Predicate<Notification> filter) {
+        return Flux.defer(() -> Flux.fromStream(source.stream()
+                .filter(filter)
+                .map(InMemoryNotificationRepository::copy)));
+    }
+
+    private static boolean matches(Notification notification, Collection<Integer> notificationIds, Integer userId,
+                                   String status) {
+        return (notificationIds == null || notificationIds.isEmpty() || notificationIds.contains(notification.getNotificationId()))
+                && (userId == null || userId.equals(notification.getUserId()))
+                && (status == null || status.equals(notification.getStatus()));
+    }
+
+    private static NotificationView view(Notification notification) {
+        return notification != null ? NotificationView.from(notification) : null;
+    }
+
+    private static Notification copy(Notification source) {
+        if (source == null) {
+            return null;
+        }
+        Notification copy = new Notification(source.getNotificationId(), source.getTitulo(), source.getMensaje(),
+                source.getUserId(), source.getStatus(), source.getCreationDate());
+        copy.setId(source.getId());
+        copy.setVersion(source.getVersion());
+        copy.setScore(source.getScore());
+        return copy;
+    }
+
+    private static DuplicateKeyException duplicateKey(int notificationId) {
+        return new DuplicateKeyException("Llave duplicada en el índice único de notificationId: " + notificationId);
+    }
+
+    // Igual que MongoDB: los campos null o ausentes van primero en orden ascendente y las propiedades que la
+    // entidad no tiene se comportan como ausentes en todos los documentos.
+    private static Comparator<Notification> comparator(Sort sort) {
+        Comparator<Notification> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            Function<Notification, Object> property = sortProperty(order.getProperty());
+            Comparator<Notification> byProperty = (a, b) -> compareValues(property.apply(a), property.apply(b), order.isIgnoreCase());
+            comparator = comparator.thenComparing(order.isAscending() ? byProperty : byProperty.reversed());
+        }
+        return comparator;
+    }
+
+    private static Function<Notification, Object> sortProperty(String property) {
+        return switch (property) {
+            case "id", "_id" -> Notification::getId;
+            case "version" -> Notification::getVersion;
+            case "notificationId" -> Notification::getNotificationId;
+            case "titulo" -> Notification::getTitulo;
+            case "mensaje" -> Notification::getMensaje;
+            case "userId" -> Notification::getUserId;
+            case "status" -> Notification::getStatus;
+            case "creationDate" -> Notification::getCreationDate;
+            default -> notification -> null;
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareValues(Object a, Object b, boolean ignoreCase) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        if (ignoreCase && a instanceof String first && b instanceof String second) {
+            return first.compareToIgnoreCase(second);
+        }
+        return ((Comparable) a).compareTo(b);
+    }
+
+    /**
+     * Índice secundario no único: valor -> _id de los documentos con ese valor, en el orden del índice de _id.
+     * Los valores null no se indexan.
+     */
+    private static final class IdIndex<K> {
+
+        private final Map<K, ConcurrentSkipListSet<String>> ids = new ConcurrentHashMap<>();
+
+        NavigableSet<String> get(K key) {
+            NavigableSet<String> found = key != null ? ids.get(key) : null;
+            return found != null ? found : Collections.emptyNavigableSet();
+        }
+
+        void add(K key, String id) {
+            if (key != null) {
+                // Dentro de compute, para no agregar a un conjunto que un remove concurrente acaba de descartar.
+                ids.compute(key, (k, current) -> {
+                    ConcurrentSkipListSet<String> set = current != null ? current : new ConcurrentSkipListSet<>();
+                    set.add(id);
+                    return set;
+                });
+            }
+        }
+
+        void remove(K key, String id) {
+            if (key != null) {
+                ids.computeIfPresent(key, (k, current) -> {
+                    current.remove(id);
+                    return current.isEmpty() ? null : current;
+                });
+            }
+        }
+    }
+
+    // Entrada del índice de creationDate: ordenada por fecha y, a igual fecha, por _id.
+    private record DatedId(long time, String id) implements Comparable<DatedId> {
+
+        @Override
+        public int compareTo(DatedId other) {
+            int byTime = Long.compare(time, other.time);
+            return byTime != 0 ? byTime : id.compareTo(other.id);
+        }
+    }
+
+    /**
+     * Aproximación en memoria de $text: términos sueltos, frases entre comillas y términos excluidos con '-',
+     * sin distinguir mayúsculas. El título pesa el doble, como en el índice de texto.
+     */
+    private record TextSearch(List<String> terms, List<String> excluded) {
+
+        static TextSearch parse(String text) {
+            List<String> terms = new ArrayList<>();
+            List<String> excluded = new ArrayList<>();
+            String[] parts = text.toLowerCase(Locale.ROOT).split("\"");
+            for (int i = 0; i < parts.length; i++) {
+                if (i % 2 == 1) {
+                    // Entre comillas: la frase completa.
+                    if (!parts[i].isBlank()) {
+                        terms.add(parts[i].trim());
+                    }
+                    continue;
+                }
+                for (String word : parts[i].trim().split("\\s+")) {
+                    if (word.startsWith("-") && word.length() > 1) {
+                        excluded.add(word.substring(1));
+                    } else if (!word.isEmpty() && !word.equals("-")) {
+                        terms.add(word);
+                    }
+                }
+            }
+            return new TextSearch(terms, excluded);
+        }
+
+        float score(Notification notification) {
+            String titulo = notification.getTitulo() != null ? notification.getTitulo().toLowerCase(Locale.ROOT) : "";
+            String mensaje = notification.getMensaje() != null ? notification.getMensaje().toLowerCase(Locale.ROOT) : "";
+            for (String term : excluded) {
+                if (titulo.contains(term) || mensaje.contains(term)) {
+                    return 0;
+                }
+            }
+            float score = 0;
+            for (String term : terms) {
+                score += (titulo.contains(term) ? 2 : 0) + (mensaje.contains(term) ? 1 : 0);
+            }
+            return score;
+        }
+    }
+}
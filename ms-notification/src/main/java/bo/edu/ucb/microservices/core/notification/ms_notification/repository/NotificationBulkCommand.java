@@ -0,0 +1,26 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.repository;
+
+import bo.edu.ucb.microservices.core.notification.ms_notification.model.Notification;
+
+/**
+ * Operación individual dentro de una escritura masiva (bulk) sobre la colección de notificaciones.
+ *
+ * @param type           Tipo de operación (inserción o borrado por ID de negocio).
+ * @param notificationId ID de negocio afectado.
+ * @param entity         Entidad a insertar; es null en los borrados.
+ */
+public record NotificationBulkCommand(Type type, int notificationId, Notification entity) {
+
+    public enum Type {
+        INSERT,
+        DELETE
+    }
+
+    public static NotificationBulkCommand insert(Notification entity) {
+        return new NotificationBulkCommand(Type.INSERT, entity.getNotificationId(), entity);
+    }
+
+    public static NotificationBulkCommand delete(int notificationId) {
+        return new NotificationBulkCommand(Type.DELETE, notificationId, null);
+    }
+}
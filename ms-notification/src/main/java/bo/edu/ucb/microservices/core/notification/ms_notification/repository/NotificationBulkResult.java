@@ -0,0 +1,28 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.repository;
+
+/**
+ * Resultado de una operación individual dentro de una escritura masiva.
+ * Permite reportar por cada elemento si se aplicó, si era una llave duplicada o si falló.
+ *
+ * @param notificationId ID de negocio afectado.
+ * @param type           Tipo de operación solicitada.
+ * @param outcome        Resultado de la operación.
+ * @param message        Detalle del error; es null cuando la operación se aplicó.
+ */
+public record NotificationBulkResult(int notificationId, NotificationBulkCommand.Type type, Outcome outcome, String message) {
+
+    public enum Outcome {
+        APPLIED,
+        DUPLICATE_KEY,
+        INVALID,
+        FAILED
+    }
+
+    public static NotificationBulkResult applied(NotificationBulkCommand command) {
+        return new NotificationBulkResult(command.notificationId(), command.type(), Outcome.APPLIED, null);
+    }
+
+    public boolean isApplied() {
+        return outcome == Outcome.APPLIED;
+    }
+}
@@ -0,0 +1,9 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.repository;
+
+/**
+ * Campos modificables de una notificación en una actualización.
+ * Se aplican con un único $set; el resto de campos (IDs, usuario, fecha de creación) no se tocan.
+ * El estado solo se cambia si viene informado.
+ */
+public record NotificationChanges(String titulo, String mensaje, String status) {
+}
@@ -1,13 +1,20 @@
 package bo.edu.ucb.microservices.core.notification.ms_notification.repository;
 
 import bo.edu.ucb.microservices.core.notification.ms_notification.model.Notification;
+import bo.edu.ucb.microservices.core.notification.ms_notification.model.NotificationView;
 import org.springframework.data.mongodb.repository.Query;
-import org.springframework.data.mongodb.repository.ReactiveMongoRepository; // CAMBIO: Import de la versión reactiva
+import org.springframework.data.repository.reactive.ReactiveCrudRepository; // CAMBIO: Import de la versión reactiva
+import org.springframework.data.repository.reactive.ReactiveSortingRepository;
 import reactor.core.publisher.Flux; // CAMBIO: Import para múltiples resultados
 import reactor.core.publisher.Mono; // CAMBIO: Import para un solo resultado (o ninguno)
 
-// CAMBIO: Se extiende de ReactiveMongoRepository en lugar de MongoRepository
-public interface NotificationRepository extends ReactiveMongoRepository<Notification, String> {
+import java.util.Collection;
+
+// CAMBIO: Se extiende de los repositorios reactivos en lugar de MongoRepository.
+// No se usa ReactiveMongoRepository: el servicio no usa consultas por ejemplo ni insert(), y así el repositorio
+// en memoria del perfil 'in-memory' implementa el contrato completo.
+public interface NotificationRepository extends ReactiveCrudRepository<Notification, String>,
+        ReactiveSortingRepository<Notification, String>, NotificationRepositoryCustom {
 
     // --- 1. Derived Query (Consulta Derivada) ---
     // Spring Data "deriva" la consulta del nombre del método, pero ahora devuelve un 'Flux' o 'Mono'.
@@ -32,9 +39,12 @@ public interface NotificationRepository extends ReactiveMongoRepository<Notifica
 
     /**
      * Busca notificaciones cuyo campo 'mensaje' contenga una palabra clave.
+     * Ningún índice puede resolver este $regex, así que recorre toda la colección.
      * @param keyword La palabra a buscar.
      * @return Un Flux que emitirá las notificaciones que coincidan.
+     * @deprecated Usar {@link NotificationRepositoryCustom#searchText(String, Integer, int, int)}, que usa el índice de texto.
      */
+    @Deprecated
     @Query("{'mensaje': { $regex: ?0, $options: 'i' } }")
     Flux<Notification> findByMessageContaining(String keyword); // CAMBIO: List -> Flux
 
@@ -48,10 +58,28 @@ public interface NotificationRepository extends ReactiveMongoRepository<Notifica
      */
     Mono<Notification> findByNotificationId(int notificationId); // CAMBIO: Optional -> Mono
 
+    // --- PROYECCIONES PARA LECTURAS ---
+    // Al devolver un record, Spring Data solo pide a MongoDB los campos del constructor de NotificationView
+    // y arma el record directamente, sin instanciar la entidad completa ni pasar por el mapper.
+
+    /**
+     * Lee solo los campos que se exponen en las lecturas, por ID de negocio.
+     * @param notificationId El ID de negocio.
+     * @return Un Mono que emitirá la vista de la notificación si se encuentra.
+     */
+    Mono<NotificationView> findViewByNotificationId(int notificationId);
+
+    /**
+     * Lee solo los campos que se exponen en las lecturas, por ID de MongoDB.
+     * @param id El ID de MongoDB.
+     * @return Un Mono que emitirá la vista de la notificación si se encuentra.
+     */
+    Mono<NotificationView> findViewById(String id);
+
     /**
-     * Elimina una notificación por su ID de negocio.
-     * @param notificationId El ID de negocio a eliminar.
-     * @return Un Mono<Void> que señala la finalización de la operación de borrado.
+     * Lee las vistas de varias notificaciones por sus IDs de negocio.
+     * @param notificationIds Los IDs de negocio.
+     * @return Un Flux con las vistas de las notificaciones que existan.
      */
-    Mono<Void> deleteByNotificationId(int notificationId); // CAMBIO: void -> Mono<Void>
+    Flux<NotificationView> findViewsByNotificationIdIn(Collection<Integer> notificationIds);
 }
\ No newline at end of file
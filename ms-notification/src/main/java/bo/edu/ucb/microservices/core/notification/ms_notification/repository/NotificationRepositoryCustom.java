@@ -0,0 +1,170 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.repository;
+
+import bo.edu.ucb.microservices.core.notification.ms_notification.model.Notification;
+import bo.edu.ucb.microservices.core.notification.ms_notification.model.NotificationView;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Operaciones del repositorio que no se pueden expresar como consultas derivadas.
+ * Spring Data combina esta interfaz con {@link NotificationRepository} usando la implementación
+ * {@link NotificationRepositoryCustomImpl}.
+ */
+public interface NotificationRepositoryCustom {
+
+    // Colección fría con las notificaciones archivadas; los documentos tienen la misma forma que en 'notifications'.
+    String ARCHIVE_COLLECTION = "notifications_archive";
+
+    /**
+     * Aplica inserciones y borrados como escrituras masivas no ordenadas (unordered bulk write).
+     * @param commands Operaciones a aplicar.
+     * @return Un Flux que emite un resultado por cada comando, en el mismo orden en que se recibieron.
+     */
+    Flux<NotificationBulkResult> bulkWrite(List<NotificationBulkCommand> commands);
+
+    /**
+     * Actualiza los campos modificables con un único findAndModify ($set de los campos y $inc de 'version').
+     * @param notificationId El ID de negocio.
+     * @param changes Los nuevos valores.
+     * @return Un Mono con el documento anterior y el actualizado, o vacío si no existe.
+     */
+    default Mono<NotificationUpdate> updateByNotificationId(int notificationId, NotificationChanges changes) {
+        return updateByNotificationId(notificationId, changes, null);
+    }
+
+    /**
+     * Actualiza solo si la versión actual es una de las esperadas (bloqueo optimista para If-Match).
+     * Un documento sin versión se considera en la versión 0.
+     * @param expectedVersions Versiones aceptadas; null no compara la versión.
+     * @return Un Mono con el documento anterior y el actualizado, o vacío si no existe o la versión no coincide.
+     */
+    Mono<NotificationUpdate> updateByNotificationId(int notificationId, NotificationChanges changes,
+                                                    Collection<Integer> expectedVersions);
+
+    /**
+     * Igual que {@link #updateByNotificationId(int, NotificationChanges)} pero buscando por el ID de MongoDB.
+     */
+    default Mono<NotificationUpdate> updateById(String id, NotificationChanges changes) {
+        return updateById(id, changes, null);
+    }
+
+    /**
+     * Igual que {@link #updateByNotificationId(int, NotificationChanges, Collection)} pero buscando por el ID de MongoDB.
+     */
+    Mono<NotificationUpdate> updateById(String id, NotificationChanges changes, Collection<Integer> expectedVersions);
+
+    /**
+     * Lee solo la versión de una notificación por su ID de negocio, para validar ETags sin traer el documento.
+     * @return Un Mono con la versión (0 si el documento no tiene), o vacío si no existe en la colección principal.
+     */
+    Mono<Integer> findVersionByNotificationId(int notificationId);
+
+    /**
+     * Igual que {@link #findVersionByNotificationId(int)} pero buscando por el ID de MongoDB.
+     */
+    Mono<Integer> findVersionById(String id);
+
+    /**
+     * Elimina una notificación por su ID de negocio con un único findAndRemove.
+     * @param notificationId El ID de negocio.
+     * @return Un Mono con el documento eliminado (solo IDs, usuario y estado), o vacío si no existía.
+     */
+    Mono<Notification> findAndRemoveByNotificationId(int notificationId);
+
+    /**
+     * Igual que {@link #findAndRemoveByNotificationId(int)} pero buscando por el ID de MongoDB.
+     */
+    Mono<Notification> findAndRemoveById(String id);
+
+    /**
+     * Lee la siguiente tanda de notificaciones que cumplen todos los criterios no nulos, en orden de _id.
+     * @param notificationIds IDs de negocio (opcional).
+     * @param userId ID del usuario (opcional).
+     * @param status Estado (opcional).
+     * @param limit Tamaño máximo de la tanda.
+     * @return Un Flux con, como máximo, 'limit' notificaciones (solo IDs, usuario y estado).
+     */
+    Flux<Notification> findRemovable(Collection<Integer> notificationIds, Integer userId, String status, int limit);
+
+    /**
+     * Elimina con un único deleteMany las notificaciones de 'ids' que todavía cumplan los criterios.
+     * @param ids IDs de MongoDB leídos con {@link #findRemovable(Collection, Integer, String, int)}.
+     * @return Un Mono que emite la cantidad de documentos eliminados.
+     */
+    Mono<Long> deleteRemovable(List<String> ids, Collection<Integer> notificationIds, Integer userId, String status);
+
+    /**
+     * Obtiene una página de notificaciones ordenadas de la más nueva a la más antigua, paginando por llave:
+     * se filtra por _id menor al último entregado en lugar de usar skip.
+     * @param userId ID del usuario (opcional).
+     * @param status Estado (opcional).
+     * @param beforeId _id del último elemento de la página anterior (opcional).
+     * @param limit Tamaño máximo de la página.
+     * @return Un Flux con, como máximo, 'limit' vistas (solo los campos de {@link NotificationView}).
+     */
+    Flux<NotificationView> findPage(Integer userId, String status, String beforeId, int limit);
+
+    /**
+     * Búsqueda de texto completo sobre 'titulo' y 'mensaje' usando el índice de texto de la colección.
+     * Los resultados se ordenan por relevancia (score) de mayor a menor.
+     * @param text Términos a buscar (admite frases entre comillas y términos excluidos con '-').
+     * @param userId ID del usuario (opcional).
+     * @param page Número de página, desde 0.
+     * @param size Tamaño de la página.
+     * @return Un Flux con las notificaciones de la página, con su campo 'score' informado.
+     */
+    Flux<Notification> searchText(String text, Integer userId, int page, int size);
+
+    // --- ARCHIVO (colección fría) ---
+
+    /**
+     * Obtiene la siguiente tanda de notificaciones a archivar, de la más antigua a la más nueva.
+     * @param createdBefore Se archivan las creadas antes de esta fecha (opcional).
+     * @param terminalStatuses Se archivan también las que estén en alguno de estos estados (opcional).
+     * @param limit Tamaño máximo de la tanda.
+     * @return Un Flux con, como máximo, 'limit' notificaciones completas.
+     */
+    Flux<Notification> findArchivable(Date createdBefore, Collection<String> terminalStatuses, int limit);
+
+    /**
+     * Copia las notificaciones a la colección de archivo y luego las elimina de la colección principal.
+     * Solo se elimina una notificación si no cambió desde que se leyó (misma versión); las que cambiaron
+     * se quitan del archivo y quedan para la siguiente tanda. Las que ya no están en la colección principal
+     * conservan su copia: otra pasada pudo moverlas primero.
+     * @param batch Notificaciones leídas con {@link #findArchivable(Date, Collection, int)}.
+     * @return Un Flux con las notificaciones que efectivamente se movieron al archivo.
+     */
+    Flux<Notification> moveToArchive(List<Notification> batch);
+
+    /**
+     * Lee del archivo solo los campos que se exponen en las lecturas, por ID de negocio.
+     */
+    Mono<NotificationView> findArchivedViewByNotificationId(int notificationId);
+
+    /**
+     * Lee del archivo solo los campos que se exponen en las lecturas, por ID de MongoDB.
+     */
+    Mono<NotificationView> findArchivedViewById(String id);
+
+    /**
+     * Elimina del archivo una notificación por su ID de negocio.
+     * @return Un Mono que emite la cantidad de documentos eliminados (0 o 1).
+     */
+    Mono<Long> deleteArchivedByNotificationId(int notificationId);
+
+    /**
+     * Elimina del archivo una notificación por su ID de MongoDB.
+     * @return Un Mono que emite la cantidad de documentos eliminados (0 o 1).
+     */
+    Mono<Long> deleteArchivedById(String id);
+
+    /**
+     * Elimina del archivo las notificaciones que cumplan todos los criterios no nulos.
+     * @return Un Mono que emite la cantidad de documentos eliminados.
+     */
+    Mono<Long> deleteArchivedMatching(Collection<Integer> notificationIds, Integer userId, String status);
+}
@@ -0,0 +1,383 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.repository;
+
+import bo.edu.ucb.microservices.core.notification.ms_notification.model.Notification;
+import bo.edu.ucb.microservices.core.notification.ms_notification.model.NotificationView;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class NotificationRepositoryCustomImpl implements NotificationRepositoryCustom {
+
+    // findAndRemove simultáneos al mover una tanda al archivo.
+    private static final int ARCHIVE_REMOVE_CONCURRENCY = 16;
+
+    private final ReactiveMongoOperations mongoOperations;
+
+    public NotificationRepositoryCustomImpl(ReactiveMongoOperations mongoOperations) {
+        this.mongoOperations = mongoOperations;
+    }
+
+    @Override
+    public Flux<NotificationBulkResult> bulkWrite(List<NotificationBulkCommand> commands) {
+        // En modo no ordenado MongoDB puede aplicar las operaciones en cualquier orden, así que un mismo
+        // notificationId nunca debe aparecer dos veces en el mismo bulk (p. ej. CREATE seguido de DELETE).
+        // Se parte la lista en segmentos sin llaves repetidas y se envían uno detrás de otro.
+        return Flux.fromIterable(segmentByKey(commands))
+                .concatMap(this::executeSegment);
+    }
+
+    @Override
+    public Mono<NotificationUpdate> updateByNotificationId(int notificationId, NotificationChanges changes,
+                                                           Collection<Integer> expectedVersions) {
+        return findAndUpdate(withVersion(Criteria.where("notificationId").is(notificationId), expectedVersions), changes);
+    }
+
+    @Override
+    public Mono<NotificationUpdate> updateById(String id, NotificationChanges changes, Collection<Integer> expectedVersions) {
+        return findAndUpdate(withVersion(Criteria.where("_id").is(id), expectedVersions), changes);
+    }
+
+    @Override
+    public Mono<Integer> findVersionByNotificationId(int notificationId) {
+        return findVersion(Criteria.where("notificationId").is(notificationId));
+    }
+
+    @Override
+    public Mono<Integer> findVersionById(String id) {
+        return findVersion(Criteria.where("_id").is(id));
+    }
+
+    // Solo se pide el campo 'version' (y _id); el documento completo no viaja.
+    private Mono<Integer> findVersion(Criteria criteria) {
+        Query query = Query.query(criteria);
+        query.fields().include("version");
+        return mongoOperations.findOne(query, Notification.class)
+                .map(notification -> notification.getVersion() != null ? notification.getVersion() : 0);
+    }
+
+    // La comparación de versión va en el mismo findAndModify, así no hay carrera entre validar y escribir.
+    // $in con null también coincide con los documentos sin campo 'version'.
+    private static Criteria withVersion(Criteria criteria, Collection<Integer> expectedVersions) {
+        if (expectedVersions == null) {
+            return criteria;
+        }
+        List<Integer> versions = new ArrayList<>(expectedVersions);
+        if (versions.contains(0)) {
+            versions.add(null);
+        }
+        return criteria.and("version").in(versions);
+    }
+
+    @Override
+    public Mono<Notification> findAndRemoveByNotificationId(int notificationId) {
+        return mongoOperations.findAndRemove(removalQuery(Criteria.where("notificationId").is(notificationId)),
+                Notification.class);
+    }
+
+    @Override
+    public Mono<Notification> findAndRemoveById(String id) {
+        return mongoOperations.findAndRemove(removalQuery(Criteria.where("_id").is(id)), Notification.class);
+    }
+
+    @Override
+    public Flux<Notification> findRemovable(Collection<Integer> notificationIds, Integer userId, String status, int limit) {
+        Query query = removalQuery(matching(notificationIds, userId, status))
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .limit(limit);
+        return mongoOperations.find(query, Notification.class);
+    }
+
+    @Override
+    public Mono<Long> deleteRemovable(List<String> ids, Collection<Integer> notificationIds, Integer userId, String status) {
+        // Se repiten los criterios: si una notificación cambió desde que se leyó, ya no se elimina.
+        Criteria criteria = matching(notificationIds, userId, status).and("_id").in(ids);
+        return mongoOperations.remove(Query.query(criteria), Notification.class)
+                .map(result -> result.getDeletedCount());
+    }
+
+    @Override
+    public Flux<Notification> findArchivable(Date createdBefore, Collection<String> terminalStatuses, int limit) {
+        List<Criteria> conditions = new ArrayList<>(2);
+        if (createdBefore != null) {
+            conditions.add(Criteria.where("creationDate").lt(createdBefore));
+        }
+        if (terminalStatuses != null && !terminalStatuses.isEmpty()) {
+            conditions.add(Criteria.where("status").in(terminalStatuses));
+        }
+        if (conditions.isEmpty()) {
+            return Flux.empty();
+        }
+
+        Criteria criteria = conditions.size() == 1 ? conditions.get(0) : new Criteria().orOperator(conditions);
+        // Orden por _id: cada tanda continúa donde terminó la anterior, porque lo ya archivado
+        // deja de cumplir el filtro al salir de la colección principal.
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .limit(limit);
+        return mongoOperations.find(query, Notification.class);
+    }
+
+    @Override
+    public Flux<Notification> moveToArchive(List<Notification> batch) {
+        if (batch.isEmpty()) {
+            return Flux.empty();
+        }
+
+        // 1. Copia idempotente al archivo: si una tanda se interrumpe, repetirla reemplaza las mismas copias.
+        ReactiveBulkOperations copy = mongoOperations.bulkOps(BulkMode.UNORDERED, Notification.class, ARCHIVE_COLLECTION);
+        for (Notification notification : batch) {
+            copy.replaceOne(Query.query(Criteria.where("_id").is(notification.getId())), notification,
+                    FindAndReplaceOptions.options().upsert());
+        }
+
+        // 2. Se elimina de la colección principal solo si la versión no cambió desde que se leyó.
+        // 3. Se quita del archivo la copia de las que siguen en la colección principal (cambiaron de versión).
+        //    Si ya no está, otra pasada la movió (su copia es la misma) o se eliminó; la copia se conserva.
+        return copy.execute()
+                .then(Flux.fromIterable(batch)
+                        .flatMap(notification -> mongoOperations.findAndRemove(Query.query(Criteria
+                                .where("_id").is(notification.getId())
+                                .and("version").is(notification.getVersion())), Notification.class),
+                                ARCHIVE_REMOVE_CONCURRENCY)
+                        .collectList())
+                .flatMapMany(moved -> {
+                    Set<String> movedIds = new HashSet<>();
+                    moved.forEach(notification -> movedIds.add(notification.getId()));
+                    List<String> notMoved = batch.stream()
+                            .map(Notification::getId)
+                            .filter(id -> !movedIds.contains(id))
+                            .toList();
+                    if (notMoved.isEmpty()) {
+                        return Flux.fromIterable(moved);
+                    }
+                    Query stillHot = Query.query(Criteria.where("_id").in(notMoved));
+                    stillHot.fields().include("_id");
+                    return mongoOperations.find(stillHot, Notification.class)
+                            .map(Notification::getId)
+                            .collectList()
+                            .flatMap(stale -> stale.isEmpty()
+                                    ? Mono.empty()
+                                    : mongoOperations.remove(Query.query(Criteria.where("_id").in(stale)), ARCHIVE_COLLECTION))
+                            .thenMany(Flux.fromIterable(moved));
+                });
+    }
+
+    @Override
+    public Mono<NotificationView> findArchivedViewByNotificationId(int notificationId) {
+        return findArchivedView(Criteria.where("notificationId").is(notificationId));
+    }
+
+    @Override
+    public Mono<NotificationView> findArchivedViewById(String id) {
+        return findArchivedView(Criteria.where("_id").is(id));
+    }
+
+    @Override
+    public Mono<Long> deleteArchivedByNotificationId(int notificationId) {
+        return deleteArchived(Criteria.where("notificationId").is(notificationId));
+    }
+
+    @Override
+    public Mono<Long> deleteArchivedById(String id) {
+        return deleteArchived(Criteria.where("_id").is(id));
+    }
+
+    @Override
+    public Mono<Long> deleteArchivedMatching(Collection<Integer> notificationIds, Integer userId, String status) {
+        return deleteArchived(matching(notificationIds, userId, status));
+    }
+
+    private Mono<NotificationView> findArchivedView(Criteria criteria) {
+        return mongoOperations.query(Notification.class)
+                .inCollection(ARCHIVE_COLLECTION)
+                .as(NotificationView.class)
+                .matching(Query.query(criteria))
+                .first();
+    }
+
+    private Mono<Long> deleteArchived(Criteria criteria) {
+        return mongoOperations.remove(Query.query(criteria), Notification.class, ARCHIVE_COLLECTION)
+                .map(result -> result.getDeletedCount());
+    }
+
+    private static Criteria matching(Collection<Integer> notificationIds, Integer userId, String status) {
+        Criteria criteria = new Criteria();
+        if (notificationIds != null && !notificationIds.isEmpty()) {
+            criteria = criteria.and("notificationId").in(notificationIds);
+        }
+        if (userId != null) {
+            criteria = criteria.and("userId").is(userId);
+        }
+        if (status != null) {
+            criteria = criteria.and("status").is(status);
+        }
+        return criteria;
+    }
+
+    // Al eliminar solo se devuelven los campos que hacen falta para la caché y los contadores.
+    private static Query removalQuery(Criteria criteria) {
+        Query query = Query.query(criteria);
+        query.fields().include("notificationId", "userId", "status");
+        return query;
+    }
+
+    @Override
+    public Flux<NotificationView> findPage(Integer userId, String status, String beforeId, int limit) {
+        Criteria criteria = new Criteria();
+        if (userId != null) {
+            criteria = criteria.and("userId").is(userId);
+        }
+        if (status != null) {
+            criteria = criteria.and("status").is(status);
+        }
+        if (beforeId != null) {
+            criteria = criteria.and("_id").lt(new ObjectId(beforeId));
+        }
+
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "_id"))
+                .limit(limit);
+        // Proyección: MongoDB devuelve solo los campos de la vista.
+        return mongoOperations.query(Notification.class)
+                .as(NotificationView.class)
+                .matching(query)
+                .all();
+    }
+
+    @Override
+    public Flux<Notification> searchText(String text, Integer userId, int page, int size) {
+        Query query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(text))
+                .sortByScore()
+                .includeScore();
+        if (userId != null) {
+            query.addCriteria(Criteria.where("userId").is(userId));
+        }
+        query.skip((long) page * size).limit(size);
+        return mongoOperations.find(query, Notification.class);
+    }
+
+    // Un solo viaje a la BD: se modifican solo los campos mutables y se incrementa la versión, sin leer antes
+    // ni depender del bloqueo optimista. Se pide el documento anterior (para conocer el estado previo) y el
+    // nuevo se arma aplicando los mismos cambios.
+    private Mono<NotificationUpdate> findAndUpdate(Criteria criteria, NotificationChanges changes) {
+        Update update = new Update()
+                .set("titulo", changes.titulo())
+                .set("mensaje", changes.mensaje())
+                .inc("version", 1);
+        if (changes.status() != null) {
+            update.set("status", changes.status());
+        }
+
+        return mongoOperations.findAndModify(Query.query(criteria), update,
+                        FindAndModifyOptions.options().returnNew(false), Notification.class)
+                .map(previous -> new NotificationUpdate(previous, applyChanges(previous, changes)));
+    }
+
+    private static Notification applyChanges(Notification previous, NotificationChanges changes) {
+        Notification current = new Notification(previous.getNotificationId(), changes.titulo(), changes.mensaje(),
+                previous.getUserId(), changes.status() != null ? changes.status() : previous.getStatus(),
+                previous.getCreationDate());
+        current.setId(previous.getId());
+        current.setVersion(previous.getVersion() != null ? previous.getVersion() + 1 : 1);
+        return current;
+    }
+
+    private Flux<NotificationBulkResult> executeSegment(List<NotificationBulkCommand> segment) {
+        ReactiveBulkOperations bulkOps = mongoOperations.bulkOps(BulkMode.UNORDERED, Notification.class);
+        for (NotificationBulkCommand command : segment) {
+            if (command.type() == NotificationBulkCommand.Type.INSERT) {
+                bulkOps.insert(command.entity());
+            } else {
+                bulkOps.remove(Query.query(Criteria.where("notificationId").is(command.notificationId())));
+            }
+        }
+
+        return bulkOps.execute()
+                .map(result -> segment.stream().map(NotificationBulkResult::applied).toList())
+                .onErrorResume(ex -> Mono.just(toResults(segment, ex)))
+                .flatMapIterable(results -> results);
+    }
+
+    /**
+     * Traduce el error del bulk a un resultado por comando. Los comandos sin error asociado se consideran aplicados.
+     */
+    private List<NotificationBulkResult> toResults(List<NotificationBulkCommand> segment, Throwable ex) {
+        MongoBulkWriteException bulkException = findBulkWriteException(ex);
+        List<NotificationBulkResult> results = new ArrayList<>(segment.size());
+
+        if (bulkException == null) {
+            // Error de red, timeout, etc.: no se sabe qué se aplicó, se reporta el fallo en todo el segmento.
+            for (NotificationBulkCommand command : segment) {
+                results.add(new NotificationBulkResult(command.notificationId(), command.type(),
+                        NotificationBulkResult.Outcome.FAILED, ex.getMessage()));
+            }
+            return results;
+        }
+
+        NotificationBulkResult[] byIndex = new NotificationBulkResult[segment.size()];
+        for (BulkWriteError error : bulkException.getWriteErrors()) {
+            NotificationBulkCommand command = segment.get(error.getIndex());
+            NotificationBulkResult.Outcome outcome = ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY
+                    ? NotificationBulkResult.Outcome.DUPLICATE_KEY
+                    : NotificationBulkResult.Outcome.FAILED;
+            byIndex[error.getIndex()] = new NotificationBulkResult(command.notificationId(), command.type(), outcome, error.getMessage());
+        }
+        for (int i = 0; i < segment.size(); i++) {
+            results.add(byIndex[i] != null ? byIndex[i] : NotificationBulkResult.applied(segment.get(i)));
+        }
+        return results;
+    }
+
+    // El traductor de excepciones de Spring puede envolver la MongoBulkWriteException (p. ej. en DuplicateKeyException).
+    private static MongoBulkWriteException findBulkWriteException(Throwable ex) {
+        Throwable current = ex;
+        while (current != null) {
+            if (current instanceof MongoBulkWriteException bulkException) {
+                return bulkException;
+            }
+            current = current.getCause();
+        }
+        return null;
+    }
+
+    private static List<List<NotificationBulkCommand>> segmentByKey(List<NotificationBulkCommand> commands) {
+        List<List<NotificationBulkCommand>> segments = new ArrayList<>();
+        List<NotificationBulkCommand> current = new ArrayList<>();
+        Set<Integer> keys = new HashSet<>();
+
+        for (NotificationBulkCommand command : commands) {
+            if (!keys.add(command.notificationId())) {
+                segments.add(current);
+                current = new ArrayList<>();
+                keys.clear();
+                keys.add(command.notificationId());
+            }
+            current.add(command);
+        }
+        if (!current.isEmpty()) {
+            segments.add(current);
+        }
+        return segments;
+    }
+}
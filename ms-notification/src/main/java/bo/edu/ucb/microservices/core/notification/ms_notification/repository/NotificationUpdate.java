@@ -0,0 +1,10 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.repository;
+
+import bo.edu.ucb.microservices.core.notification.ms_notification.model.Notification;
+
+/**
+ * Resultado de una actualización: el documento como estaba antes y como quedó.
+ * El estado anterior hace falta, p. ej., para mover los contadores de un estado a otro.
+ */
+public record NotificationUpdate(Notification previous, Notification current) {
+}
@@ -0,0 +1,70 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.services;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Leases con vencimiento en MongoDB para las tareas que deben ejecutarse en una sola instancia a la vez
+ * (archivado, relay del outbox). Cada lease es un documento de 'leases' con su dueño y su vencimiento:
+ * se toma si está libre o vencido y el dueño lo renueva antes de cada tramo de trabajo. Si el dueño cae,
+ * otra instancia lo toma al vencer.
+ */
+@Component
+public class LeaderLease {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LeaderLease.class);
+
+    public static final String COLLECTION = "leases";
+
+    private final ReactiveMongoOperations mongoOperations;
+    private final String owner = UUID.randomUUID().toString();
+
+    @Autowired
+    public LeaderLease(ReactiveMongoOperations mongoOperations) {
+        this.mongoOperations = mongoOperations;
+    }
+
+    /**
+     * Toma o renueva el lease por 'duration'.
+     * @return Un Mono con true si esta instancia es la dueña hasta el nuevo vencimiento.
+     */
+    public Mono<Boolean> tryAcquire(String name, Duration duration) {
+        Date now = new Date();
+        Query freeOrMine = Query.query(Criteria.where("_id").is(name)
+                .orOperator(Criteria.where("owner").is(owner), Criteria.where("until").lt(now)));
+        Update take = new Update()
+                .set("owner", owner)
+                .set("until", new Date(now.getTime() + duration.toMillis()));
+
+        // Si otra instancia lo tiene vigente el filtro no coincide y el upsert choca con su _id.
+        return mongoOperations.findAndModify(freeOrMine, take, FindAndModifyOptions.options().upsert(true).returnNew(true),
+                        Document.class, COLLECTION)
+                .map(lease -> owner.equals(lease.getString("owner")))
+                .defaultIfEmpty(false)
+                .onErrorResume(DuplicateKeyException.class, ex -> Mono.just(false));
+    }
+
+    /**
+     * Libera el lease si esta instancia es la dueña, para que otra lo tome sin esperar al vencimiento.
+     */
+    public Mono<Void> release(String name) {
+        return mongoOperations.remove(Query.query(Criteria.where("_id").is(name).and("owner").is(owner)), COLLECTION)
+                .doOnError(ex -> LOGGER.warn("No se pudo liberar el lease {}", name, ex))
+                .onErrorResume(ex -> Mono.empty())
+                .then();
+    }
+}
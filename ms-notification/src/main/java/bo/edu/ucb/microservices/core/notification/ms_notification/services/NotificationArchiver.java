@@ -0,0 +1,163 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.services;
+
+import bo.edu.ucb.microservices.core.notification.ms_notification.model.Notification;
+import bo.edu.ucb.microservices.core.notification.ms_notification.repository.NotificationRepository;
+import bo.edu.ucb.microservices.core.notification.ms_notification.repository.NotificationRepositoryCustom;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Archiva las notificaciones frías: las creadas hace más de 'max-age-days' o en un estado terminal
+ * se mueven, en tandas acotadas, de 'notifications' a 'notifications_archive'. Así el conjunto de trabajo
+ * y los índices de la colección principal dejan de crecer con el historial.
+ * Las lecturas por ID siguen encontrando las notificaciones archivadas (ver {@link NotificationService}),
+ * pero los listados, la búsqueda y los contadores solo consideran la colección principal.
+ * Opcionalmente, un índice TTL elimina del archivo las notificaciones que no necesitan retención.
+ */
+@Component
+public class NotificationArchiver {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NotificationArchiver.class);
+
+    static final String LEASE_NAME = "notification-archiver";
+
+    private final NotificationRepository repository;
+    private final ReactiveMongoOperations mongoOperations;
+    private final NotificationCounters counters;
+    private final LeaderLease lease;
+    private final boolean enabled;
+    private final long maxAgeDays;
+    private final List<String> terminalStatuses;
+    private final int batchSize;
+    private final Duration interval;
+    private final long ttlDays;
+    private final Duration leaseDuration;
+
+    private Disposable archiving;
+
+    @Autowired
+    public NotificationArchiver(NotificationRepository repository, ReactiveMongoOperations mongoOperations,
+                                NotificationCounters counters, LeaderLease lease,
+                                @Value("${app.notification.archive.enabled:false}") boolean enabled,
+                                @Value("${app.notification.archive.max-age-days:90}") long maxAgeDays,
+                                @Value("${app.notification.archive.terminal-statuses:}") List<String> terminalStatuses,
+                                @Value("${app.notification.archive.batch-size:500}") int batchSize,
+                                @Value("${app.notification.archive.interval-seconds:300}") long intervalSeconds,
+                                @Value("${app.notification.archive.ttl-days:0}") long ttlDays,
+                                @Value("${app.notification.archive.lease-seconds:60}") long leaseSeconds) {
+        this.repository = repository;
+        this.mongoOperations = mongoOperations;
+        this.counters = counters;
+        this.lease = lease;
+        this.enabled = enabled;
+        this.maxAgeDays = maxAgeDays;
+        this.terminalStatuses = terminalStatuses;
+        this.batchSize = batchSize;
+        this.interval = Duration.ofSeconds(intervalSeconds);
+        this.ttlDays = ttlDays;
+        this.leaseDuration = Duration.ofSeconds(leaseSeconds);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startArchiving() {
+        if (!enabled) {
+            return;
+        }
+        LOGGER.info("---- Archivado de notificaciones cada {}: más de {} días o estados {} ----",
+                interval, maxAgeDays, terminalStatuses);
+
+        // Una pasada a la vez: si una pasada tarda más que el intervalo, los ticks intermedios se descartan.
+        archiving = ensureArchiveIndexes()
+                .thenMany(Flux.interval(Duration.ZERO, interval))
+                .onBackpressureDrop()
+                .concatMap(tick -> archiveOnce()
+                        .onErrorResume(ex -> {
+                            LOGGER.warn("Error archivando notificaciones, se reintenta en la siguiente pasada", ex);
+                            return Mono.empty();
+                        }), 1)
+                .subscribe(archived -> {
+                    if (archived > 0) {
+                        LOGGER.info("Notificaciones archivadas: {}", archived);
+                    }
+                });
+    }
+
+    @PreDestroy
+    public void stopArchiving() {
+        if (archiving != null) {
+            archiving.dispose();
+            lease.release(LEASE_NAME).block(Duration.ofSeconds(5));
+        }
+    }
+
+    /**
+     * Archiva tandas hasta que no quede nada que archivar. Solo archiva la instancia que tiene el lease
+     * '{@value #LEASE_NAME}'; se renueva antes de cada tanda y, si se pierde, la pasada termina.
+     * @return Un Mono con la cantidad de notificaciones movidas al archivo.
+     */
+    public Mono<Long> archiveOnce() {
+        return leasedBatch()
+                .expand(batch -> batch.read() < batchSize ? Mono.empty() : leasedBatch())
+                .reduce(0L, (total, batch) -> total + batch.moved());
+    }
+
+    private Mono<BatchResult> leasedBatch() {
+        return lease.tryAcquire(LEASE_NAME, leaseDuration)
+                .flatMap(owned -> owned ? archiveBatch() : Mono.empty());
+    }
+
+    private Mono<BatchResult> archiveBatch() {
+        Date createdBefore = maxAgeDays > 0 ? Date.from(Instant.now().minus(Duration.ofDays(maxAgeDays))) : null;
+
+        return repository.findArchivable(createdBefore, terminalStatuses, batchSize)
+                .collectList()
+                .flatMap(batch -> repository.moveToArchive(batch)
+                        .collectList()
+                        .flatMap(moved -> {
+                            // Los contadores solo cuentan las notificaciones de la colección principal.
+                            NotificationCounters.Delta delta = new NotificationCounters.Delta();
+                            for (Notification notification : moved) {
+                                delta.add(notification.getUserId(), notification.getStatus(), -1);
+                            }
+                            return counters.apply(delta).thenReturn(new BatchResult(batch.size(), moved.size()));
+                        }));
+    }
+
+    private Mono<Void> ensureArchiveIndexes() {
+        ReactiveIndexOperations indexOps = mongoOperations.indexOps(NotificationRepositoryCustom.ARCHIVE_COLLECTION);
+        // No es único: el archivo no impide que un ID de negocio se reutilice en la colección principal.
+        Mono<String> byNotificationId = indexOps.ensureIndex(new Index().on("notificationId", Sort.Direction.ASC));
+        Mono<String> ttl = ttlDays > 0
+                ? indexOps.ensureIndex(new Index().on("creationDate", Sort.Direction.ASC).expire(Duration.ofDays(ttlDays)))
+                : Mono.empty();
+
+        return Flux.merge(byNotificationId, ttl)
+                .doOnNext(name -> LOGGER.info("Índice del archivo de notificaciones listo: {}", name))
+                .onErrorResume(ex -> {
+                    LOGGER.error("No se pudieron crear los índices del archivo de notificaciones", ex);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private record BatchResult(int read, int moved) {
+    }
+}
@@ -0,0 +1,154 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.services;
+
+import bo.edu.ucb.microservices.core.notification.ms_notification.model.NotificationView;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché en memoria de notificaciones (read-through), acotada por tamaño y TTL.
+ * Las entradas se indexan por ID de negocio; un índice secundario resuelve el ID de MongoDB,
+ * de modo que invalidar por cualquiera de los dos IDs elimina la misma entrada.
+ * Las métricas de aciertos y fallos se publican como 'cache.gets' con el tag cache=notifications.
+ * <p>
+ * Cada invalidación avanza una generación y deja una marca (por ID de negocio y por ID de MongoDB) que dura lo
+ * mismo que una entrada. Quien lee de MongoDB toma la generación antes de leer y la pasa a {@link #put}: si
+ * mientras tanto se invalidó esa notificación (por ejemplo, se eliminó), el resultado no se guarda.
+ */
+@Component
+public class NotificationCache {
+
+    private final boolean enabled;
+    private final Cache<Integer, NotificationView> views;
+    private final Map<String, Integer> notificationIdByMongoId = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final Cache<Integer, Long> evictedByNotificationId;
+    private final Cache<String, Long> evictedByMongoId;
+    private volatile long evictedAllAt;
+
+    @Autowired
+    public NotificationCache(MeterRegistry meterRegistry,
+                             @Value("${app.notification.cache.enabled:true}") boolean enabled,
+                             @Value("${app.notification.cache.max-size:10000}") long maxSize,
+                             @Value("${app.notification.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.enabled = enabled;
+        this.views = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                // El índice secundario vive mientras viva la entrada principal.
+                .removalListener((Integer notificationId, NotificationView view, RemovalCause cause) -> {
+                    if (cause != RemovalCause.REPLACED && view != null && view.id() != null) {
+                        notificationIdByMongoId.remove(view.id(), notificationId);
+                    }
+                })
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, views, "notifications");
+        // Una marca solo tiene que durar más que una lectura en curso; con el TTL de la caché alcanza.
+        this.evictedByNotificationId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+        this.evictedByMongoId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    public NotificationView getByNotificationId(int notificationId) {
+        return enabled ? views.getIfPresent(notificationId) : null;
+    }
+
+    public NotificationView getByMongoId(String mongoId) {
+        if (!enabled) {
+            return null;
+        }
+        Integer notificationId = notificationIdByMongoId.get(mongoId);
+        return notificationId != null ? views.getIfPresent(notificationId) : null;
+    }
+
+    /**
+     * Generación actual; se toma antes de leer de MongoDB y se pasa a {@link #put(NotificationView, long)}.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Guarda una vista que se acaba de leer, sin lecturas en curso que puedan cruzarse con una invalidación.
+     */
+    public NotificationView put(NotificationView view) {
+        return put(view, generation());
+    }
+
+    /**
+     * Guarda (o refresca) la notificación; queda accesible por sus dos IDs.
+     * Si la caché ya tiene una versión mayor se conserva esa: una lectura lenta que termina después de una
+     * actualización no debe reemplazar el resultado de la actualización. Si la notificación se invalidó después de
+     * {@code readGeneration} no se guarda: una lectura lenta no debe revivir una notificación eliminada.
+     * @return La vista que quedó en la caché (la recibida o una más nueva), o la recibida si no se guardó.
+     */
+    public NotificationView put(NotificationView view, long readGeneration) {
+        if (!enabled || evictedSince(view, readGeneration)) {
+            return view;
+        }
+        NotificationView kept = views.asMap().merge(view.notificationId(), view,
+                (current, candidate) -> versionOf(candidate) >= versionOf(current) ? candidate : current);
+        if (kept == view && view.id() != null) {
+            notificationIdByMongoId.put(view.id(), view.notificationId());
+        }
+        // Una invalidación que llegó entre la revisión y el merge deja su marca antes de invalidar,
+        // así que se ve aquí: se retira lo recién guardado.
+        if (kept == view && evictedSince(view, readGeneration)) {
+            views.asMap().remove(view.notificationId(), view);
+        }
+        return kept;
+    }
+
+    private boolean evictedSince(NotificationView view, long readGeneration) {
+        if (evictedAllAt > readGeneration) {
+            return true;
+        }
+        Long byNotificationId = evictedByNotificationId.getIfPresent(view.notificationId());
+        Long byMongoId = view.id() != null ? evictedByMongoId.getIfPresent(view.id()) : null;
+        return (byNotificationId != null && byNotificationId > readGeneration)
+                || (byMongoId != null && byMongoId > readGeneration);
+    }
+
+    private static int versionOf(NotificationView view) {
+        return view.version() != null ? view.version() : 0;
+    }
+
+    public void evictByNotificationId(int notificationId) {
+        evictedByNotificationId.put(notificationId, generation.incrementAndGet());
+        views.invalidate(notificationId);
+    }
+
+    public void evictByMongoId(String mongoId) {
+        long evictedAt = generation.incrementAndGet();
+        evictedByMongoId.put(mongoId, evictedAt);
+        Integer notificationId = notificationIdByMongoId.remove(mongoId);
+        if (notificationId != null) {
+            evictedByNotificationId.put(notificationId, evictedAt);
+            views.invalidate(notificationId);
+        }
+    }
+
+    /**
+     * Vacía la caché; se usa cuando un borrado masivo por filtro no permite saber qué IDs se eliminaron.
+     */
+    public void evictAll() {
+        evictedAllAt = generation.incrementAndGet();
+        views.invalidateAll();
+    }
+}
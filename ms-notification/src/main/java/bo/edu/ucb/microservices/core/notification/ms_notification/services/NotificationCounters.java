@@ -0,0 +1,257 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.services;
+
+import bo.edu.ucb.microservices.core.notification.ms_notification.model.Notification;
+import bo.edu.ucb.microservices.core.notification.ms_notification.model.NotificationCounter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Contadores de notificaciones por usuario y estado, mantenidos de forma incremental.
+ * Cada escritura aplica un $inc atómico sobre el documento del usuario en 'notification_counters';
+ * las lecturas se sirven desde una caché en memoria con TTL corto, que además se refresca con
+ * el resultado de cada $inc hecho en esta instancia (solo si su 'revision' no es más vieja que la guardada).
+ * Con el outbox habilitado el $inc va en la misma transacción que la notificación y un error la revierte.
+ * Sin outbox, un error al actualizar los contadores no hace fallar la escritura de la notificación: se registra
+ * y los usuarios afectados se recuentan desde la colección de notificaciones.
+ * Con 'app.notification.counters.mongo.enabled=false' (perfil 'in-memory') los contadores solo se mantienen
+ * en memoria de esta instancia.
+ */
+@Component
+public class NotificationCounters {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NotificationCounters.class);
+
+    // Clave usada para las notificaciones sin estado.
+    static final String NO_STATUS = "SIN_ESTADO";
+
+    private final ReactiveMongoOperations mongoOperations;
+    private final Cache<Integer, NotificationCounter> counts;
+    private final String unreadStatus;
+    private final boolean mongoEnabled;
+    private final boolean transactional;
+    // Contadores en memoria cuando no se usa MongoDB; cada cambio reemplaza el contador por una copia nueva.
+    private final Map<Integer, NotificationCounter> localCounts = new ConcurrentHashMap<>();
+
+    @Autowired
+    public NotificationCounters(ReactiveMongoOperations mongoOperations, MeterRegistry meterRegistry,
+                                @Value("${app.notification.counters.cache.max-size:10000}") long maxSize,
+                                @Value("${app.notification.counters.cache.ttl-seconds:10}") long ttlSeconds,
+                                @Value("${app.notification.counters.unread-status:ENVIADO}") String unreadStatus,
+                                @Value("${app.notification.counters.mongo.enabled:true}") boolean mongoEnabled,
+                                @Value("${app.notification.outbox.enabled:false}") boolean transactional) {
+        this.mongoOperations = mongoOperations;
+        this.unreadStatus = unreadStatus;
+        this.mongoEnabled = mongoEnabled;
+        this.transactional = transactional;
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, counts, "notification_counters");
+    }
+
+    /**
+     * Obtiene los contadores de un usuario; si el usuario no tiene notificaciones, todos son cero.
+     */
+    public Mono<NotificationCounter> getCounts(int userId) {
+        if (!mongoEnabled) {
+            return Mono.fromSupplier(() -> localCounts.getOrDefault(userId, new NotificationCounter(userId)));
+        }
+        NotificationCounter cached = counts.getIfPresent(userId);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return mongoOperations.findById(userId, NotificationCounter.class)
+                .defaultIfEmpty(new NotificationCounter(userId))
+                .map(this::cacheIfNewer);
+    }
+
+    public long unreadCount(NotificationCounter counter) {
+        return counter.countFor(statusKey(unreadStatus));
+    }
+
+    public Mono<Void> created(Notification notification) {
+        return apply(new Delta().add(notification.getUserId(), notification.getStatus(), 1));
+    }
+
+    public Mono<Void> deleted(Notification notification) {
+        return apply(new Delta().add(notification.getUserId(), notification.getStatus(), -1));
+    }
+
+    /**
+     * Mueve la notificación de un estado a otro; si el estado no cambió no se escribe nada.
+     */
+    public Mono<Void> updated(Notification previous, Notification current) {
+        return apply(new Delta()
+                .add(previous.getUserId(), previous.getStatus(), -1)
+                .add(current.getUserId(), current.getStatus(), 1));
+    }
+
+    /**
+     * Aplica los cambios acumulados: un findAndModify si afectan a un solo usuario, o un bulk write
+     * no ordenado con un upsert por usuario si afectan a varios.
+     * Con el outbox habilitado debe ejecutarse dentro de {@link NotificationOutbox#transactional(Mono)}, como
+     * último paso, y un error se propaga para revertir la escritura de la notificación.
+     */
+    public Mono<Void> apply(Delta delta) {
+        Map<Integer, Update> updates = delta.toUpdates();
+        if (updates.isEmpty()) {
+            return Mono.empty();
+        }
+        if (!mongoEnabled) {
+            return Mono.fromRunnable(() -> updates.keySet().forEach(userId ->
+                    localCounts.compute(userId, (key, counter) -> delta.applyTo(key, counter))));
+        }
+
+        Mono<Void> write;
+        if (updates.size() == 1) {
+            Map.Entry<Integer, Update> entry = updates.entrySet().iterator().next();
+            write = mongoOperations.findAndModify(byUser(entry.getKey()), entry.getValue(),
+                            FindAndModifyOptions.options().upsert(true).returnNew(true), NotificationCounter.class)
+                    .doOnNext(this::cacheIfNewer)
+                    .then();
+        } else {
+            ReactiveBulkOperations bulkOps = mongoOperations.bulkOps(BulkMode.UNORDERED, NotificationCounter.class);
+            updates.forEach((userId, update) -> bulkOps.upsert(byUser(userId), update));
+            // El bulk no devuelve los documentos, así que se descartan las entradas de la caché.
+            write = bulkOps.execute()
+                    .doOnSuccess(result -> counts.invalidateAll(updates.keySet()))
+                    .then();
+        }
+
+        if (transactional) {
+            return write.doOnError(ex -> counts.invalidateAll(updates.keySet()));
+        }
+        return write.onErrorResume(ex -> {
+            LOGGER.warn("No se pudieron actualizar los contadores de los usuarios {}; se recuentan", updates.keySet(), ex);
+            counts.invalidateAll(updates.keySet());
+            return recount(updates.keySet()).onErrorResume(recountEx -> {
+                LOGGER.warn("No se pudieron recontar los contadores de los usuarios {}", updates.keySet(), recountEx);
+                return Mono.empty();
+            });
+        });
+    }
+
+    /**
+     * Recalcula los contadores de los usuarios contando sus notificaciones (una agregación por usuario)
+     * y los reemplaza con un $set. Un $inc concurrente entre la agregación y el $set puede perderse,
+     * así que solo se usa para corregir un $inc que falló.
+     */
+    public Mono<Void> recount(Collection<Integer> userIds) {
+        if (!mongoEnabled) {
+            return Mono.empty();
+        }
+        return Flux.fromIterable(userIds)
+                .concatMap(this::recount)
+                .then();
+    }
+
+    private Mono<NotificationCounter> recount(Integer userId) {
+        Aggregation byStatus = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("userId").is(userId)),
+                Aggregation.group("status").count().as("count"));
+        return mongoOperations.aggregate(byStatus, Notification.class, Document.class)
+                .collect(HashMap<String, Long>::new, (totals, group) ->
+                        totals.merge(statusKey(group.getString("_id")), ((Number) group.get("count")).longValue(), Long::sum))
+                .flatMap(counted -> mongoOperations.findAndModify(byUser(userId), new Update()
+                                .set("byStatus", counted)
+                                .set("total", counted.values().stream().mapToLong(Long::longValue).sum())
+                                .inc("revision", 1),
+                        FindAndModifyOptions.options().upsert(true).returnNew(true), NotificationCounter.class))
+                .doOnNext(this::cacheIfNewer);
+    }
+
+    // Dos findAndModify concurrentes pueden terminar en cualquier orden; se conserva el de mayor 'revision'.
+    // Con la misma revisión gana el nuevo: así un valor de una transacción revertida se reemplaza con el siguiente.
+    private NotificationCounter cacheIfNewer(NotificationCounter counter) {
+        return counts.asMap().merge(counter.getUserId(), counter,
+                (current, candidate) -> candidate.getRevision() >= current.getRevision() ? candidate : current);
+    }
+
+    private static Query byUser(Integer userId) {
+        return Query.query(Criteria.where("_id").is(userId));
+    }
+
+    // Los estados se usan como nombre de campo; '.' y '$' no se permiten ahí.
+    static String statusKey(String status) {
+        return status == null ? NO_STATUS : status.replace('.', '_').replace('$', '_');
+    }
+
+    /**
+     * Cambios pendientes de aplicar a los contadores, agrupados por usuario y estado.
+     * Las notificaciones sin usuario no se cuentan.
+     */
+    public static final class Delta {
+
+        private final Map<Integer, Map<String, Long>> byUser = new LinkedHashMap<>();
+
+        public Delta add(Integer userId, String status, long amount) {
+            if (userId != null && amount != 0) {
+                byUser.computeIfAbsent(userId, key -> new HashMap<>()).merge(statusKey(status), amount, Long::sum);
+            }
+            return this;
+        }
+
+        // Devuelve un contador nuevo con los cambios del usuario aplicados sobre 'counter' (que puede ser null).
+        NotificationCounter applyTo(Integer userId, NotificationCounter counter) {
+            NotificationCounter next = new NotificationCounter(userId);
+            Map<String, Long> byStatus = new HashMap<>();
+            if (counter != null) {
+                next.setTotal(counter.getTotal());
+                byStatus.putAll(counter.getByStatus());
+            }
+            byUser.getOrDefault(userId, Map.of()).forEach((status, amount) -> {
+                byStatus.merge(status, amount, Long::sum);
+                next.setTotal(next.getTotal() + amount);
+            });
+            next.setByStatus(byStatus);
+            return next;
+        }
+
+        Map<Integer, Update> toUpdates() {
+            Map<Integer, Update> updates = new LinkedHashMap<>();
+            byUser.forEach((userId, byStatus) -> {
+                Update update = new Update();
+                long total = 0;
+                boolean changed = false;
+                for (Map.Entry<String, Long> entry : byStatus.entrySet()) {
+                    if (entry.getValue() != 0) {
+                        update.inc("byStatus." + entry.getKey(), entry.getValue());
+                        total += entry.getValue();
+                        changed = true;
+                    }
+                }
+                if (changed) {
+                    updates.put(userId, update.inc("total", total).inc("revision", 1));
+                }
+            });
+            return updates;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.services;
+
+import bo.edu.ucb.microservices.util.exceptions.InvalidInputException;
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Cursor opaco para la paginación por llave (keyset) de los listados.
+ * Codifica el _id del último elemento entregado; como los ObjectId crecen con la fecha de creación,
+ * ordenar por _id equivale a ordenar por fecha de creación sin usar skip.
+ */
+public final class NotificationCursor {
+
+    private NotificationCursor() {
+    }
+
+    public static String encode(String mongoId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(mongoId.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * @return El _id codificado en el cursor, o null si no se envió cursor.
+     */
+    public static String decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String mongoId = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            if (ObjectId.isValid(mongoId)) {
+                return mongoId;
+            }
+        } catch (IllegalArgumentException ex) {
+            // Se reporta abajo como cursor inválido.
+        }
+        throw new InvalidInputException("Cursor inválido: " + cursor);
+    }
+}
@@ -0,0 +1,152 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.services;
+
+import bo.edu.ucb.microservices.core.notification.ms_notification.mapper.NotificationMapper;
+import bo.edu.ucb.microservices.core.notification.ms_notification.model.Notification;
+import bo.edu.ucb.microservices.dto.notification.NotificationDto;
+import com.mongodb.client.model.changestream.FullDocument;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Canal de notificaciones en tiempo real por usuario.
+ * Cada usuario con suscriptores tiene un sink multicast; un suscriptor lento solo pierde sus propios
+ * mensajes más antiguos (buffer acotado por suscriptor) y no frena a los demás.
+ * Las notificaciones llegan desde la capa de servicio o, si se habilita, desde un change stream de MongoDB
+ * para que cada instancia vea también lo escrito por las otras.
+ */
+@Component
+public class NotificationFeed {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NotificationFeed.class);
+
+    private final ReactiveMongoOperations mongoOperations;
+    private final NotificationMapper mapper;
+    private final int subscriberBufferSize;
+    private final boolean changeStreamEnabled;
+
+    private final Map<Integer, UserChannel> channels = new ConcurrentHashMap<>();
+    private Disposable changeStreamSubscription;
+
+    @Autowired
+    public NotificationFeed(ReactiveMongoOperations mongoOperations, NotificationMapper mapper,
+                            @Value("${app.notification.feed.subscriber-buffer-size:256}") int subscriberBufferSize,
+                            @Value("${app.notification.feed.change-stream.enabled:false}") boolean changeStreamEnabled) {
+        this.mongoOperations = mongoOperations;
+        this.mapper = mapper;
+        this.subscriberBufferSize = subscriberBufferSize;
+        this.changeStreamEnabled = changeStreamEnabled;
+    }
+
+    /**
+     * Suscribe al canal del usuario. El canal se crea con el primer suscriptor y se elimina con el último.
+     */
+    public Flux<NotificationDto> subscribe(int userId) {
+        return Flux.defer(() -> {
+                    UserChannel channel = channels.compute(userId, (id, current) -> {
+                        UserChannel result = current != null ? current : new UserChannel();
+                        result.subscribers++;
+                        return result;
+                    });
+                    return channel.sink.asFlux()
+                            .doFinally(signal -> release(userId, channel));
+                })
+                .onBackpressureBuffer(subscriberBufferSize,
+                        dropped -> LOGGER.debug("Suscriptor lento del usuario {}, se descarta la notificación {}",
+                                userId, dropped.getNotificationId()),
+                        BufferOverflowStrategy.DROP_OLDEST);
+    }
+
+    /**
+     * Publica una notificación escrita por esta instancia. Si el change stream está activo no hace nada,
+     * porque la misma escritura llegará por ese medio.
+     */
+    public void publishWrite(NotificationDto dto) {
+        if (!changeStreamEnabled) {
+            publish(dto);
+        }
+    }
+
+    public void publishWrite(Notification entity) {
+        if (!changeStreamEnabled && entity.getUserId() != null && channels.containsKey(entity.getUserId())) {
+            publish(mapper.entityToDto(entity));
+        }
+    }
+
+    private void publish(NotificationDto dto) {
+        if (dto.getUserId() == null) {
+            return;
+        }
+        UserChannel channel = channels.get(dto.getUserId());
+        if (channel == null) {
+            return;
+        }
+        // Las escrituras llegan desde varios hilos; el sink exige emisiones serializadas.
+        synchronized (channel) {
+            channel.sink.tryEmitNext(dto);
+        }
+    }
+
+    private void release(int userId, UserChannel channel) {
+        channels.computeIfPresent(userId, (id, current) -> {
+            if (current != channel) {
+                return current;
+            }
+            current.subscribers--;
+            return current.subscribers > 0 ? current : null;
+        });
+    }
+
+    public int getActiveUserCount() {
+        return channels.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startChangeStream() {
+        if (!changeStreamEnabled) {
+            return;
+        }
+        LOGGER.info("---- Escuchando el change stream de la colección de notificaciones ----");
+
+        // Requiere que MongoDB corra como replica set.
+        changeStreamSubscription = mongoOperations.changeStream(Notification.class)
+                .withOptions(options -> options.fullDocumentLookup(FullDocument.UPDATE_LOOKUP))
+                .watchCollection(Notification.class)
+                .filter(Criteria.where("operationType").in("insert", "update", "replace"))
+                .listen()
+                .mapNotNull(event -> event.getBody())
+                .map(mapper::entityToDto)
+                .doOnNext(this::publish)
+                .doOnError(ex -> LOGGER.warn("Error en el change stream de notificaciones, reintentando", ex))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stopChangeStream() {
+        if (changeStreamSubscription != null) {
+            changeStreamSubscription.dispose();
+        }
+    }
+
+    private static final class UserChannel {
+        private final Sinks.Many<NotificationDto> sink = Sinks.many().multicast().directBestEffort();
+        private int subscribers;
+    }
+}
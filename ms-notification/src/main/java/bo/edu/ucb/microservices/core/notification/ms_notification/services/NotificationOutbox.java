@@ -0,0 +1,142 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.services;
+
+import bo.edu.ucb.microservices.core.notification.ms_notification.mapper.NotificationMapper;
+import bo.edu.ucb.microservices.core.notification.ms_notification.model.Notification;
+import bo.edu.ucb.microservices.core.notification.ms_notification.model.OutboxMessage;
+import bo.edu.ucb.microservices.util.events.Event;
+import com.mongodb.MongoException;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.ReactiveMongoTransactionManager;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Outbox transaccional de los cambios de estado de las notificaciones.
+ * {@link NotificationService} guarda cada create/update/delete junto con su {@link OutboxMessage} en una
+ * misma transacción de MongoDB (requiere replica set); el relay publica después los mensajes pendientes.
+ * Cada mensaje lleva la siguiente secuencia de su notificación, incrementada en la misma transacción:
+ * dos cambios concurrentes de una notificación chocan en ese documento y el segundo se reintenta,
+ * así la secuencia sigue el orden de commit. Deshabilitado, no se escribe el outbox ni se abren transacciones.
+ */
+@Component
+public class NotificationOutbox {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NotificationOutbox.class);
+
+    public static final String SEQUENCES_COLLECTION = "notifications_outbox_sequences";
+
+    private static final int MAX_TRANSIENT_RETRIES = 3;
+    private static final String SEQUENCE = "sequence";
+
+    private final ReactiveMongoOperations mongoOperations;
+    private final NotificationMapper mapper;
+    private final boolean enabled;
+    private final TransactionalOperator transactionalOperator;
+
+    @Autowired
+    public NotificationOutbox(ReactiveMongoOperations mongoOperations, NotificationMapper mapper,
+                              ObjectProvider<ReactiveMongoDatabaseFactory> databaseFactory,
+                              @Value("${app.notification.outbox.enabled:false}") boolean enabled) {
+        this.mongoOperations = mongoOperations;
+        this.mapper = mapper;
+        this.enabled = enabled;
+        // Gestor de transacciones propio: no se registra como bean para no cambiar el resto del servicio.
+        this.transactionalOperator = enabled
+                ? TransactionalOperator.create(new ReactiveMongoTransactionManager(databaseFactory.getObject()))
+                : null;
+        if (enabled) {
+            LOGGER.info("---- Outbox de notificaciones habilitado ({}) ----", OutboxMessage.COLLECTION);
+        }
+    }
+
+    /**
+     * Ejecuta la escritura en una transacción. Los conflictos transitorios (TransientTransactionError)
+     * se reintentan; la escritura debe ser un Mono frío para que cada intento la repita completa.
+     */
+    public <T> Mono<T> transactional(Mono<T> write) {
+        if (!enabled) {
+            return write;
+        }
+        return transactionalOperator.transactional(write)
+                .retryWhen(Retry.max(MAX_TRANSIENT_RETRIES).filter(NotificationOutbox::isTransient));
+    }
+
+    /**
+     * Registra el cambio de una notificación; debe ejecutarse dentro de {@link #transactional(Mono)}.
+     */
+    public Mono<Void> record(Event.Type eventType, Notification notification) {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        int notificationId = notification.getNotificationId();
+        Query byId = Query.query(Criteria.where("_id").is(notificationId));
+        return mongoOperations.findAndModify(byId, new Update().inc(SEQUENCE, 1),
+                        FindAndModifyOptions.options().upsert(true).returnNew(true), Document.class, SEQUENCES_COLLECTION)
+                .flatMap(sequence -> mongoOperations.insert(toMessage(eventType, notification, sequenceOf(sequence))))
+                .then();
+    }
+
+    /**
+     * Registra el mismo cambio para varias notificaciones con un único insertMany.
+     */
+    public Mono<Void> recordAll(Event.Type eventType, List<Notification> notifications) {
+        if (!enabled || notifications.isEmpty()) {
+            return Mono.empty();
+        }
+        // Un upsert por notificación en un solo bulk write y una lectura de las secuencias resultantes.
+        List<Integer> ids = notifications.stream().map(Notification::getNotificationId).distinct().toList();
+        ReactiveBulkOperations increments = mongoOperations.bulkOps(BulkMode.UNORDERED, SEQUENCES_COLLECTION);
+        for (Integer id : ids) {
+            increments.upsert(Query.query(Criteria.where("_id").is(id)), new Update().inc(SEQUENCE, 1));
+        }
+        return increments.execute()
+                .thenMany(mongoOperations.find(Query.query(Criteria.where("_id").in(ids)), Document.class, SEQUENCES_COLLECTION))
+                .collectMap(sequence -> sequence.getInteger("_id"), NotificationOutbox::sequenceOf)
+                .flatMap(sequences -> mongoOperations.insertAll(notifications.stream()
+                                .map(notification -> toMessage(eventType, notification,
+                                        sequences.getOrDefault(notification.getNotificationId(), 0L)))
+                                .toList())
+                        .then());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private OutboxMessage toMessage(Event.Type eventType, Notification notification, long sequence) {
+        return new OutboxMessage(eventType, notification.getNotificationId(), sequence,
+                mapper.entityToDto(notification), new Date());
+    }
+
+    private static long sequenceOf(Document sequence) {
+        return ((Number) sequence.get(SEQUENCE)).longValue();
+    }
+
+    private static boolean isTransient(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoException mongoException
+                    && mongoException.hasErrorLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,35 +1,85 @@
 package bo.edu.ucb.microservices.core.notification.ms_notification.services;
 
 import bo.edu.ucb.microservices.core.notification.ms_notification.mapper.NotificationMapper;
+import bo.edu.ucb.microservices.core.notification.ms_notification.metrics.NotificationMetrics;
 import bo.edu.ucb.microservices.core.notification.ms_notification.model.Notification;
+import bo.edu.ucb.microservices.core.notification.ms_notification.model.NotificationView;
+import bo.edu.ucb.microservices.core.notification.ms_notification.repository.NotificationBulkCommand;
+import bo.edu.ucb.microservices.core.notification.ms_notification.repository.NotificationBulkResult;
 import bo.edu.ucb.microservices.core.notification.ms_notification.repository.NotificationRepository;
+import bo.edu.ucb.microservices.core.notification.ms_notification.repository.NotificationUpdate;
+import bo.edu.ucb.microservices.dto.notification.NotificationCountsDto;
 import bo.edu.ucb.microservices.dto.notification.NotificationDto;
+import bo.edu.ucb.microservices.util.events.Event;
+import bo.edu.ucb.microservices.util.exceptions.ConflictException;
 import bo.edu.ucb.microservices.util.exceptions.InvalidInputException;
 import bo.edu.ucb.microservices.util.exceptions.NotFoundException;
+import bo.edu.ucb.microservices.util.exceptions.PreconditionFailedException;
 import bo.edu.ucb.microservices.util.http.ServiceUtil;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
+import java.util.stream.Collectors;
 
 @Service
 public class NotificationService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(NotificationService.class);
 
+    // Estado con el que se crean las notificaciones si el DTO no indica otro.
+    private static final String DEFAULT_STATUS = "ENVIADO";
+
     private final ServiceUtil serviceUtil;
     private final NotificationRepository repository;
     private final NotificationMapper mapper;
+    private final NotificationCache cache;
+    private final NotificationFeed feed;
+    private final NotificationCounters counters;
+    private final NotificationMetrics metrics;
+    private final NotificationOutbox outbox;
+    private final int listingPageSize;
+    private final int maxSearchPageSize;
+    private final Validator validator;
+    private final int ingestChunkSize;
+    private final int deleteBatchSize;
 
     @Autowired
-    public NotificationService(ServiceUtil serviceUtil, NotificationRepository repository, NotificationMapper mapper) {
+    public NotificationService(ServiceUtil serviceUtil, NotificationRepository repository, NotificationMapper mapper,
+                               NotificationCache cache, NotificationFeed feed, NotificationCounters counters,
+                               NotificationMetrics metrics, NotificationOutbox outbox, Validator validator,
+                               @Value("${app.notification.listing.page-size:100}") int listingPageSize,
+                               @Value("${app.notification.search.max-page-size:100}") int maxSearchPageSize,
+                               @Value("${app.notification.ingest.chunk-size:500}") int ingestChunkSize,
+                               @Value("${app.notification.bulk-delete.batch-size:500}") int deleteBatchSize) {
         this.serviceUtil = serviceUtil;
         this.repository = repository;
         this.mapper = mapper;
+        this.cache = cache;
+        this.feed = feed;
+        this.counters = counters;
+        this.metrics = metrics;
+        this.outbox = outbox;
+        this.listingPageSize = listingPageSize;
+        this.maxSearchPageSize = maxSearchPageSize;
+        this.validator = validator;
+        this.ingestChunkSize = ingestChunkSize;
+        this.deleteBatchSize = deleteBatchSize;
     }
 
     /**
@@ -42,51 +92,243 @@ public class NotificationService {
             throw new InvalidInputException("ID de notificación inválido: " + notificationDto.getNotificationId());
         }
 
-        Notification entity = mapper.dtoToEntity(notificationDto);
+        Notification entity = newEntity(notificationDto);
 
         // El pipeline reactivo comienza aquí.
+        // La notificación, su cambio en el outbox y los contadores del usuario se guardan en la misma transacción.
         return repository.save(entity)
-                .log(LOGGER.getName(), Level.FINE)
+                .flatMap(saved -> outbox.record(Event.Type.CREATE, saved).thenReturn(saved))
+                // Suma la notificación a los contadores del usuario.
+                .flatMap(saved -> counters.created(saved).thenReturn(saved))
+                .as(outbox::transactional)
+                .transform(this::signalLog)
                 // Transforma un error de BD en una excepción de dominio.
                 .onErrorMap(DuplicateKeyException.class,
-                        ex -> new InvalidInputException("Llave duplicada, Notification Id: " + notificationDto.getNotificationId()))
+                        ex -> new InvalidInputException("Llave duplicada, Notification Id: " + notificationDto.getNotificationId(), ex))
+                // Descarta cualquier entrada previa de la caché con el mismo ID de negocio.
+                .doOnNext(saved -> cache.evictByNotificationId(saved.getNotificationId()))
+                // Envía la notificación a los suscriptores en tiempo real del usuario.
+                .doOnNext(feed::publishWrite)
                 // Mapea la entidad guardada de vuelta a un DTO.
-                .map(mapper::entityToDto);
+                .map(mapper::entityToDto)
+                .as(result -> metrics.timeService("create", result));
+    }
+
+    /**
+     * Crea la entidad a partir del DTO y asigna los campos que controla el servicio.
+     */
+    private Notification newEntity(NotificationDto notificationDto) {
+        Notification entity = mapper.dtoToEntity(notificationDto);
+        entity.setCreationDate(new Date());
+        if (entity.getStatus() == null) {
+            entity.setStatus(DEFAULT_STATUS);
+        }
+        return entity;
     }
 
     /**
      * Obtiene una notificación por su ID de negocio (int) de forma reactiva.
      */
     public Mono<NotificationDto> getNotification(int notificationId) {
+        return getNotificationView(notificationId).map(this::toListedDto);
+    }
+
+    /**
+     * Igual que {@link #getNotification(int)} pero devuelve la vista, que incluye la versión para el ETag.
+     */
+    public Mono<NotificationView> getNotificationView(int notificationId) {
+        return getNotificationView(notificationId, 0);
+    }
+
+    /**
+     * Igual que {@link #getNotificationView(int)}, pero la caché solo se usa si tiene al menos {@code minVersion}.
+     * La caché es local a cada instancia: si otra ya escribió una versión más nueva (que se conoce por
+     * {@link #getNotificationVersion(int)}), se lee de MongoDB y la caché queda con el resultado.
+     */
+    public Mono<NotificationView> getNotificationView(int notificationId, int minVersion) {
         if (notificationId < 1) {
             throw new InvalidInputException("ID de notificación inválido: " + notificationId);
         }
 
-        return repository.findByNotificationId(notificationId)
+        // Primero se consulta la caché; solo si no está (o está atrasada) se va a MongoDB y se guarda el resultado.
+        NotificationView cached = cache.getByNotificationId(notificationId);
+        if (cached != null && versionOf(cached) >= minVersion) {
+            return metrics.timeService("get", Mono.just(cached));
+        }
+
+        // Se lee la proyección: solo los campos del DTO, sin la entidad completa ni el mapper.
+        // Si ya no está en la colección principal, se busca en el archivo.
+        long generation = cache.generation();
+        return repository.findViewByNotificationId(notificationId)
+                .switchIfEmpty(repository.findArchivedViewByNotificationId(notificationId))
                 // Si el repositorio no emite nada (vacío), se lanza un error de 'NotFoundException'.
                 .switchIfEmpty(Mono.error(new NotFoundException("No se encontró notificación para notificationId: " + notificationId)))
-                .log(LOGGER.getName(), Level.FINE)
+                .transform(this::signalLog)
+                .map(view -> cache.put(view, generation))
+                .as(result -> metrics.timeService("get", result));
+    }
+
+    /**
+     * Obtiene solo la versión de una notificación, para responder If-None-Match sin leer el documento.
+     * Siempre se pide a MongoDB (solo el campo 'version'): la caché es local a cada instancia y no se entera de
+     * los cambios hechos en otras, así que podría responder 304 con una versión ya reemplazada.
+     * @return Un Mono con la versión (0 si el documento no tiene), o error NotFoundException si no existe.
+     */
+    public Mono<Integer> getNotificationVersion(int notificationId) {
+        if (notificationId < 1) {
+            throw new InvalidInputException("ID de notificación inválido: " + notificationId);
+        }
+        return repository.findVersionByNotificationId(notificationId)
+                .switchIfEmpty(repository.findArchivedViewByNotificationId(notificationId).map(NotificationService::versionOf))
+                .switchIfEmpty(Mono.error(new NotFoundException("No se encontró notificación para notificationId: " + notificationId)))
+                .as(result -> metrics.timeService("getVersion", result));
+    }
+
+    /**
+     * Lista en streaming las notificaciones de un usuario y/o estado, de la más nueva a la más antigua.
+     * Internamente se leen páginas de tamaño fijo por llave (keyset), y la siguiente página solo se pide
+     * cuando el cliente consumió la anterior, así la memoria no crece con la cantidad de notificaciones.
+     * @param cursor Cursor opaco del último elemento recibido (opcional).
+     * @param limit Máximo de elementos a emitir (opcional, sin límite si es null).
+     */
+    public Flux<NotificationView> streamNotifications(Integer userId, String status, String cursor, Integer limit) {
+        if (limit != null && limit < 1) {
+            throw new InvalidInputException("Límite inválido: " + limit);
+        }
+        String beforeId = NotificationCursor.decode(cursor);
+
+        Flux<NotificationView> views = fetchPage(userId, status, beforeId)
+                .expand(page -> page.size() < listingPageSize
+                        ? Mono.empty()
+                        : fetchPage(userId, status, page.get(page.size() - 1).id()))
+                // prefetch 1: se mantiene en memoria una sola página a la vez.
+                .flatMapIterable(page -> page, 1);
+
+        return metrics.timeService("stream", limit != null ? views.take(limit, true) : views);
+    }
+
+    private Mono<List<NotificationView>> fetchPage(Integer userId, String status, String beforeId) {
+        return repository.findPage(userId, status, beforeId, listingPageSize)
+                .collectList();
+    }
+
+    /**
+     * Busca notificaciones por texto en 'titulo' y 'mensaje', ordenadas por relevancia.
+     * Usa el índice de texto de MongoDB, por lo que el costo no crece linealmente con el tamaño de la colección.
+     */
+    public Flux<NotificationDto> searchNotifications(String text, Integer userId, int page, int size) {
+        if (text == null || text.isBlank()) {
+            throw new InvalidInputException("El texto a buscar es obligatorio");
+        }
+        if (page < 0 || size < 1 || size > maxSearchPageSize) {
+            throw new InvalidInputException("Paginación inválida: page=" + page + ", size=" + size
+                    + " (size debe estar entre 1 y " + maxSearchPageSize + ")");
+        }
+
+        return repository.searchText(text, userId, page, size)
                 .map(mapper::entityToDto)
-                // Se usa un helper para añadir la dirección del servicio, como en el ejemplo.
-                .map(this::setServiceAddress);
+                .map(this::setServiceAddress)
+                .as(result -> metrics.timeService("search", result));
+    }
+
+    /**
+     * Arma el DTO de un elemento del listado con la dirección del servicio.
+     */
+    public NotificationDto toListedDto(NotificationView view) {
+        return setServiceAddress(view.toDto());
     }
 
     /**
      * Actualiza una notificación por su ID de negocio (int) de forma reactiva.
      */
     public Mono<NotificationDto> updateNotification(int notificationId, NotificationDto notificationDto) {
+        return updateNotification(notificationId, notificationDto, null).map(NotificationView::toDto);
+    }
+
+    /**
+     * Actualiza solo si la versión actual es una de las esperadas (If-Match).
+     * @param expectedVersions Versiones aceptadas; null actualiza sin comparar la versión.
+     * @return Un Mono con la vista actualizada; error PreconditionFailedException si la versión no coincide,
+     * o ConflictException si la notificación está archivada.
+     */
+    public Mono<NotificationView> updateNotification(int notificationId, NotificationDto notificationDto,
+                                                     Collection<Integer> expectedVersions) {
         if (notificationId < 1) {
             throw new InvalidInputException("ID de notificación inválido: " + notificationId);
         }
 
-        return repository.findByNotificationId(notificationId)
-                .switchIfEmpty(Mono.error(new NotFoundException("No se encontró notificación para notificationId: " + notificationId)))
-                .flatMap(entity -> {
-                    mapper.updateEntityFromDto(notificationDto, entity);
-                    return repository.save(entity);
-                })
-                .log(LOGGER.getName(), Level.FINE)
-                .map(mapper::entityToDto);
+        // Un único findAndModify: aplica los cambios e incrementa la versión en el servidor.
+        long generation = cache.generation();
+        return repository.updateByNotificationId(notificationId, mapper.dtoToChanges(notificationDto), expectedVersions)
+                .flatMap(this::recordUpdate)
+                // Si cambió el estado, se mueve la notificación de un contador a otro.
+                .flatMap(this::updateCounters)
+                .as(outbox::transactional)
+                // Vacío: no existe o, con If-Match, existe en otra versión.
+                .switchIfEmpty(Mono.defer(() -> updateRejected(repository.findVersionByNotificationId(notificationId),
+                        repository.findArchivedViewByNotificationId(notificationId), expectedVersions,
+                        "notificationId: " + notificationId)))
+                .transform(this::signalLog)
+                // Refresca la caché con la versión recién guardada, salvo que se haya eliminado mientras tanto.
+                .doOnNext(saved -> cache.put(NotificationView.from(saved), generation))
+                .doOnNext(feed::publishWrite)
+                .map(NotificationView::from)
+                .as(result -> metrics.timeService("update", result));
+    }
+
+    /**
+     * Indica si el error de {@link #createNotification(NotificationDto)} se debe a que el notificationId ya existe.
+     */
+    public static boolean isDuplicateKey(Throwable ex) {
+        return ex instanceof InvalidInputException && ex.getCause() instanceof DuplicateKeyException;
+    }
+
+    // Las notificaciones archivadas se leen pero no se modifican: sin documento en la colección principal,
+    // una que está en el archivo se rechaza con ConflictException (409) y las demás con NotFoundException.
+    private static <T> Mono<T> updateRejected(Mono<Integer> currentVersion, Mono<NotificationView> archived,
+                                              Collection<Integer> expectedVersions, String target) {
+        Mono<T> missing = archived.hasElement()
+                .flatMap(isArchived -> Mono.<T>error(isArchived
+                        ? new ConflictException("La notificación " + target + " está archivada y no admite cambios")
+                        : new NotFoundException("No se encontró notificación para " + target)));
+        if (expectedVersions == null) {
+            return missing;
+        }
+        return currentVersion
+                .flatMap(version -> Mono.<T>error(new PreconditionFailedException(
+                        "La notificación " + target + " está en la versión " + version + ", no coincide con If-Match")))
+                .switchIfEmpty(missing);
+    }
+
+    private static int versionOf(NotificationView view) {
+        return view.version() != null ? view.version() : 0;
+    }
+
+    private Mono<NotificationUpdate> recordUpdate(NotificationUpdate update) {
+        return outbox.record(Event.Type.UPDATE, update.current()).thenReturn(update);
+    }
+
+    private Mono<Notification> recordDelete(Notification removed) {
+        return outbox.record(Event.Type.DELETE, removed).thenReturn(removed);
+    }
+
+    private Mono<Notification> updateCounters(NotificationUpdate update) {
+        return counters.updated(update.previous(), update.current()).thenReturn(update.current());
+    }
+
+    /**
+     * Obtiene los contadores de notificaciones de un usuario (total, sin leer y por estado).
+     * Se leen de los contadores incrementales, sin recorrer la colección de notificaciones.
+     */
+    public Mono<NotificationCountsDto> getNotificationCounts(int userId) {
+        if (userId < 1) {
+            throw new InvalidInputException("ID de usuario inválido: " + userId);
+        }
+
+        return counters.getCounts(userId)
+                .map(counter -> new NotificationCountsDto(userId, counter.getTotal(), counters.unreadCount(counter),
+                        counter.getByStatus() != null ? Map.copyOf(counter.getByStatus()) : Map.of()))
+                .as(result -> metrics.timeService("counts", result));
     }
 
     /**
@@ -100,11 +342,244 @@ public class NotificationService {
 
         LOGGER.debug("deleteNotification: eliminando notificación con ID de negocio: {}", notificationId);
 
-        // Se busca la entidad y luego se pasa al método de borrado del repositorio.
-        // .flatMap(repository::delete) es un atajo para .flatMap(entity -> repository.delete(entity))
-        return repository.findByNotificationId(notificationId)
-                .log(LOGGER.getName(), Level.FINE)
-                .flatMap(repository::delete);
+        // Un único findAndRemove en el servidor; el documento eliminado indica qué contadores descontar.
+        // Si no estaba en la colección principal, se elimina del archivo (que no cuenta en los contadores).
+        return repository.findAndRemoveByNotificationId(notificationId)
+                .flatMap(this::recordDelete)
+                .flatMap(removed -> counters.deleted(removed).thenReturn(1L))
+                .as(outbox::transactional)
+                .transform(this::signalLog)
+                .switchIfEmpty(repository.deleteArchivedByNotificationId(notificationId))
+                .doOnSuccess(deleted -> cache.evictByNotificationId(notificationId))
+                .then()
+                .as(result -> metrics.timeService("delete", result));
+    }
+
+    /**
+     * Elimina varias notificaciones con un único deleteMany: por lista de IDs de negocio, por usuario y/o por estado.
+     * Retorna un Mono con la cantidad de notificaciones eliminadas.
+     */
+    public Mono<Long> deleteNotifications(List<Integer> notificationIds, Integer userId, String status) {
+        boolean hasIds = notificationIds != null && !notificationIds.isEmpty();
+        if (!hasIds && userId == null && status == null) {
+            // Sin criterios se eliminaría toda la colección.
+            throw new InvalidInputException("Se requiere al menos un criterio: notificationIds, userId o status");
+        }
+        if (hasIds && notificationIds.stream().anyMatch(id -> id == null || id < 1)) {
+            throw new InvalidInputException("ID de notificación inválido en la lista: " + notificationIds);
+        }
+
+        LOGGER.debug("deleteNotifications: ids={}, userId={}, status={}", notificationIds, userId, status);
+
+        // Se elimina en tandas acotadas (lectura de IDs, usuario y estado + un deleteMany por tanda),
+        // así ni la memoria ni el $in crecen con la cantidad de notificaciones del usuario o del estado.
+        return deleteBatch(notificationIds, userId, status)
+                .expand(batch -> batch.read() < deleteBatchSize ? Mono.empty() : deleteBatch(notificationIds, userId, status))
+                .reduce(0L, (total, batch) -> total + batch.deleted())
+                // También se eliminan las archivadas que cumplan los criterios.
+                .flatMap(count -> repository.deleteArchivedMatching(notificationIds, userId, status)
+                        .doOnNext(archived -> {
+                            // No se sabe qué IDs había en el archivo; si se eliminó alguno se vacía la caché.
+                            if (archived > 0) {
+                                cache.evictAll();
+                            }
+                        })
+                        .map(archived -> count + archived))
+                .as(result -> metrics.timeService("deleteMany", result));
+    }
+
+    // Con el outbox habilitado la lectura, el deleteMany y los contadores de la tanda van en la misma transacción,
+    // y los contadores, la caché y el outbox usan exactamente lo eliminado. Sin transacción, una notificación que
+    // cambie de estado entre la lectura y el borrado no se elimina y sus contadores pueden desviarse en 1.
+    private Mono<DeleteBatch> deleteBatch(List<Integer> notificationIds, Integer userId, String status) {
+        return repository.findRemovable(notificationIds, userId, status, deleteBatchSize)
+                .collectList()
+                .flatMap(batch -> batch.isEmpty()
+                        ? Mono.just(new DeleteBatch(batch, 0))
+                        : repository.deleteRemovable(batch.stream().map(Notification::getId).toList(),
+                                        notificationIds, userId, status)
+                                .flatMap(deleted -> outbox.recordAll(Event.Type.DELETE, batch)
+                                        .then(counters.apply(removedDelta(batch)))
+                                        .thenReturn(new DeleteBatch(batch, deleted))))
+                .as(outbox::transactional)
+                .doOnNext(batch -> batch.removed()
+                        .forEach(notification -> cache.evictByNotificationId(notification.getNotificationId())));
+    }
+
+    private static NotificationCounters.Delta removedDelta(List<Notification> removed) {
+        NotificationCounters.Delta delta = new NotificationCounters.Delta();
+        for (Notification notification : removed) {
+            delta.add(notification.getUserId(), notification.getStatus(), -1);
+        }
+        return delta;
+    }
+
+    private record DeleteBatch(List<Notification> removed, long deleted) {
+        int read() {
+            return removed.size();
+        }
+    }
+
+    /**
+     * Aplica un lote de eventos CREATE/DELETE con una única escritura masiva no ordenada.
+     * Los eventos inválidos no se envían a MongoDB y se reportan como INVALID.
+     * Retorna un Flux con un resultado por evento, en el mismo orden del lote.
+     */
+    public Flux<NotificationBulkResult> applyEventBatch(List<Event<Integer, NotificationDto>> events) {
+        NotificationBulkResult[] results = new NotificationBulkResult[events.size()];
+        List<NotificationBulkCommand> commands = new ArrayList<>(events.size());
+        List<Integer> commandPositions = new ArrayList<>(events.size());
+
+        for (int i = 0; i < events.size(); i++) {
+            Event<Integer, NotificationDto> event = events.get(i);
+            Event.Type eventType = event.getEventType();
+
+            if (eventType == Event.Type.CREATE && event.getData() != null && event.getData().getNotificationId() >= 1) {
+                commands.add(newBulkInsert(event.getData()));
+                commandPositions.add(i);
+            } else if (eventType == Event.Type.DELETE && event.getKey() != null && event.getKey() >= 1) {
+                commands.add(NotificationBulkCommand.delete(event.getKey()));
+                commandPositions.add(i);
+            } else {
+                results[i] = invalidEventResult(event);
+            }
+        }
+
+        return metrics.timeService("applyEventBatch", executeBulk(results, commands, commandPositions));
+    }
+
+    /**
+     * Crea un bloque de notificaciones con una única escritura masiva no ordenada.
+     * Cada DTO se valida con Bean Validation; los inválidos no se envían a MongoDB y se reportan como INVALID.
+     * Retorna un Flux con un resultado por DTO, en el mismo orden recibido.
+     */
+    public Flux<NotificationBulkResult> createNotifications(List<NotificationDto> notificationDtos) {
+        NotificationBulkResult[] results = new NotificationBulkResult[notificationDtos.size()];
+        List<NotificationBulkCommand> commands = new ArrayList<>(notificationDtos.size());
+        List<Integer> commandPositions = new ArrayList<>(notificationDtos.size());
+
+        for (int i = 0; i < notificationDtos.size(); i++) {
+            NotificationDto dto = notificationDtos.get(i);
+            String violations = validate(dto);
+            if (violations == null) {
+                commands.add(newBulkInsert(dto));
+                commandPositions.add(i);
+            } else {
+                results[i] = new NotificationBulkResult(dto != null ? dto.getNotificationId() : 0,
+                        NotificationBulkCommand.Type.INSERT, NotificationBulkResult.Outcome.INVALID, violations);
+            }
+        }
+
+        return metrics.timeService("createMany", executeBulk(results, commands, commandPositions));
+    }
+
+    /**
+     * Carga masiva en streaming: agrupa los DTOs en bloques acotados y escribe un bloque a la vez.
+     * El siguiente bloque solo se pide cuando terminó la escritura del anterior (backpressure hacia el cliente).
+     */
+    public Flux<NotificationBulkResult> ingestNotifications(Flux<NotificationDto> notificationDtos) {
+        return notificationDtos
+                .buffer(ingestChunkSize)
+                .concatMap(this::createNotifications);
+    }
+
+    // Misma validación que @Valid en el POST individual, más la regla de ID de negocio positivo.
+    private String validate(NotificationDto dto) {
+        if (dto == null) {
+            return "Notificación vacía";
+        }
+        Set<ConstraintViolation<NotificationDto>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        if (dto.getNotificationId() < 1) {
+            return "ID de notificación inválido: " + dto.getNotificationId();
+        }
+        return null;
+    }
+
+    private NotificationBulkCommand newBulkInsert(NotificationDto dto) {
+        Notification entity = newEntity(dto);
+        // Las inserciones masivas no inicializan el campo @Version como lo hace save().
+        entity.setVersion(0);
+        return NotificationBulkCommand.insert(entity);
+    }
+
+    /**
+     * Envía los comandos en un bulk write y completa el arreglo de resultados en sus posiciones originales.
+     */
+    private Flux<NotificationBulkResult> executeBulk(NotificationBulkResult[] results, List<NotificationBulkCommand> commands,
+                                                     List<Integer> commandPositions) {
+        if (commands.isEmpty()) {
+            return Flux.fromArray(results);
+        }
+
+        // Un delete masivo no devuelve lo eliminado; para descontar los contadores se leen antes
+        // el usuario y el estado de las notificaciones a eliminar.
+        List<Integer> deletedIds = commands.stream()
+                .filter(command -> command.type() == NotificationBulkCommand.Type.DELETE)
+                .map(NotificationBulkCommand::notificationId)
+                .toList();
+        Mono<Map<Integer, NotificationView>> existing = deletedIds.isEmpty()
+                ? Mono.just(new HashMap<>())
+                : repository.findViewsByNotificationIdIn(deletedIds).collectMap(NotificationView::notificationId);
+
+        return existing.flatMapMany(present -> {
+            NotificationCounters.Delta delta = new NotificationCounters.Delta();
+            return repository.bulkWrite(commands)
+                    .index()
+                    .doOnNext(indexed -> {
+                        NotificationBulkResult result = indexed.getT2();
+                        NotificationBulkCommand command = commands.get(indexed.getT1().intValue());
+                        results[commandPositions.get(indexed.getT1().intValue())] = result;
+                        cache.evictByNotificationId(result.notificationId());
+                        if (result.isApplied()) {
+                            countBulkResult(command, present, delta);
+                        }
+                    })
+                    .thenMany(Flux.defer(() -> counters.apply(delta).thenMany(Flux.fromArray(results))));
+        });
+    }
+
+    // Los resultados llegan en el orden de los comandos, así que 'present' sigue qué notificaciones existen
+    // (p. ej. un CREATE seguido de un DELETE del mismo ID en el mismo lote).
+    private void countBulkResult(NotificationBulkCommand command, Map<Integer, NotificationView> present,
+                                 NotificationCounters.Delta delta) {
+        if (command.type() == NotificationBulkCommand.Type.INSERT) {
+            Notification entity = command.entity();
+            feed.publishWrite(entity);
+            present.put(entity.getNotificationId(), NotificationView.from(entity));
+            delta.add(entity.getUserId(), entity.getStatus(), 1);
+        } else {
+            NotificationView removed = present.remove(command.notificationId());
+            if (removed != null) {
+                delta.add(removed.userId(), removed.status(), -1);
+            }
+        }
+    }
+
+    private NotificationBulkResult invalidEventResult(Event<Integer, NotificationDto> event) {
+        int key = event.getKey() != null ? event.getKey() : 0;
+        if (event.getEventType() == Event.Type.CREATE) {
+            int notificationId = event.getData() != null ? event.getData().getNotificationId() : key;
+            return new NotificationBulkResult(notificationId, NotificationBulkCommand.Type.INSERT,
+                    NotificationBulkResult.Outcome.INVALID, "ID de notificación inválido: " + notificationId);
+        }
+        if (event.getEventType() == Event.Type.DELETE) {
+            return new NotificationBulkResult(key, NotificationBulkCommand.Type.DELETE,
+                    NotificationBulkResult.Outcome.INVALID, "ID de notificación inválido: " + key);
+        }
+        return new NotificationBulkResult(key, null, NotificationBulkResult.Outcome.INVALID,
+                "Tipo de evento incorrecto: " + event.getEventType() + ", se espera CREATE o DELETE");
+    }
+
+    // Log de cada señal reactiva solo si DEBUG está activo al armar el pipeline: con el nivel apagado
+    // no se agrega el operador. Se puede encender en caliente con /actuator/loggers.
+    private <T> Mono<T> signalLog(Mono<T> mono) {
+        return LOGGER.isDebugEnabled() ? mono.log(LOGGER.getName(), Level.FINE) : mono;
     }
 
     /**
@@ -119,24 +594,66 @@ public class NotificationService {
      * Obtiene una notificación por su ID de MongoDB (String) de forma reactiva.
      */
     public Mono<NotificationDto> getNotificationByMongoId(String mongoId) {
-        return repository.findById(mongoId)
+        return getNotificationViewByMongoId(mongoId).map(this::toListedDto);
+    }
+
+    /**
+     * Igual que {@link #getNotificationByMongoId(String)} pero devuelve la vista, que incluye la versión para el ETag.
+     */
+    public Mono<NotificationView> getNotificationViewByMongoId(String mongoId) {
+        return getNotificationViewByMongoId(mongoId, 0);
+    }
+
+    /**
+     * Igual que {@link #getNotificationView(int, int)} pero buscando por el ID de MongoDB.
+     */
+    public Mono<NotificationView> getNotificationViewByMongoId(String mongoId, int minVersion) {
+        NotificationView cached = cache.getByMongoId(mongoId);
+        if (cached != null && versionOf(cached) >= minVersion) {
+            return metrics.timeService("getByMongoId", Mono.just(cached));
+        }
+
+        long generation = cache.generation();
+        return repository.findViewById(mongoId)
+                .switchIfEmpty(repository.findArchivedViewById(mongoId))
                 .switchIfEmpty(Mono.error(new NotFoundException("No se encontró notificación para el ID de BD: " + mongoId)))
-                .map(mapper::entityToDto)
-                .map(this::setServiceAddress);
+                .map(view -> cache.put(view, generation))
+                .as(result -> metrics.timeService("getByMongoId", result));
+    }
+
+    /**
+     * Igual que {@link #getNotificationVersion(int)} pero buscando por el ID de MongoDB.
+     */
+    public Mono<Integer> getNotificationVersionByMongoId(String mongoId) {
+        return repository.findVersionById(mongoId)
+                .switchIfEmpty(repository.findArchivedViewById(mongoId).map(NotificationService::versionOf))
+                .switchIfEmpty(Mono.error(new NotFoundException("No se encontró notificación para el ID de BD: " + mongoId)))
+                .as(result -> metrics.timeService("getVersionByMongoId", result));
     }
 
     /**
      * Actualiza una notificación por su ID de MongoDB (String) de forma reactiva.
      */
     public Mono<NotificationDto> updateNotificationByMongoId(String mongoId, NotificationDto notificationDto) {
-        return repository.findById(mongoId)
-                .switchIfEmpty(Mono.error(new NotFoundException("No se encontró notificación para el ID de BD: " + mongoId)))
-                .flatMap(entity -> {
-                    // Usamos el método de actualización del mapper que ya tenías
-                    mapper.updateEntityFromDto(notificationDto, entity);
-                    return repository.save(entity);
-                })
-                .map(mapper::entityToDto);
+        return updateNotificationByMongoId(mongoId, notificationDto, null).map(NotificationView::toDto);
+    }
+
+    /**
+     * Igual que {@link #updateNotification(int, NotificationDto, Collection)} pero buscando por el ID de MongoDB.
+     */
+    public Mono<NotificationView> updateNotificationByMongoId(String mongoId, NotificationDto notificationDto,
+                                                              Collection<Integer> expectedVersions) {
+        long generation = cache.generation();
+        return repository.updateById(mongoId, mapper.dtoToChanges(notificationDto), expectedVersions)
+                .flatMap(this::recordUpdate)
+                .flatMap(this::updateCounters)
+                .as(outbox::transactional)
+                .switchIfEmpty(Mono.defer(() -> updateRejected(repository.findVersionById(mongoId),
+                        repository.findArchivedViewById(mongoId), expectedVersions, "el ID de BD: " + mongoId)))
+                .doOnNext(saved -> cache.put(NotificationView.from(saved), generation))
+                .doOnNext(feed::publishWrite)
+                .map(NotificationView::from)
+                .as(result -> metrics.timeService("updateByMongoId", result));
     }
 
     /**
@@ -144,7 +661,13 @@ public class NotificationService {
      */
     public Mono<Void> deleteNotificationByMongoId(String mongoId) {
         LOGGER.debug("deleteNotificationByMongoId: eliminando notificación con ID de BD: {}", mongoId);
-        // deleteById es un método que ya viene en ReactiveMongoRepository
-        return repository.deleteById(mongoId);
+        return repository.findAndRemoveById(mongoId)
+                .flatMap(this::recordDelete)
+                .flatMap(removed -> counters.deleted(removed).thenReturn(1L))
+                .as(outbox::transactional)
+                .switchIfEmpty(repository.deleteArchivedById(mongoId))
+                .doOnSuccess(deleted -> cache.evictByMongoId(mongoId))
+                .then()
+                .as(result -> metrics.timeService("deleteByMongoId", result));
     }
 }
\ No newline at end of file
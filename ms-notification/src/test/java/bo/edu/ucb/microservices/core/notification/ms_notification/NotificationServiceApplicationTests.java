@@ -1,7 +1,15 @@
 package bo.edu.ucb.microservices.core.notification.ms_notification;
 
+import bo.edu.ucb.microservices.core.notification.ms_notification.model.NotificationView;
+import bo.edu.ucb.microservices.core.notification.ms_notification.repository.NotificationBulkResult;
 import bo.edu.ucb.microservices.core.notification.ms_notification.repository.NotificationRepository;
+import bo.edu.ucb.microservices.core.notification.ms_notification.services.NotificationArchiver;
+import bo.edu.ucb.microservices.core.notification.ms_notification.services.NotificationService;
+import bo.edu.ucb.microservices.dto.notification.NotificationBulkDeleteDto;
+import bo.edu.ucb.microservices.dto.notification.NotificationBulkItemResultDto;
+import bo.edu.ucb.microservices.dto.notification.NotificationCountsDto;
 import bo.edu.ucb.microservices.dto.notification.NotificationDto;
+import bo.edu.ucb.microservices.util.events.Event;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,6 +22,10 @@ import org.testcontainers.containers.MongoDBContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
 
 @SpringBootTest(webEnvironment = RANDOM_PORT)
@@ -36,6 +48,12 @@ class NotificationServiceApplicationTests {
     @Autowired
     private NotificationRepository repository;
 
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private NotificationArchiver archiver;
+
     // 3. Antes de CADA test, se asegura de que la base de datos esté vacía
     @BeforeEach
     void setupDb() {
@@ -119,6 +137,237 @@ class NotificationServiceApplicationTests {
                 .expectStatus().isNoContent(); // 204 No Content es el código para un borrado exitoso
     }
 
+    @Test
+    void streamNotifications_ByUser_NewestFirst() {
+        // ARRANGE: tres notificaciones del usuario 7 y una de otro usuario
+        for (int id = 201; id <= 203; id++) {
+            NotificationDto dto = new NotificationDto(id, "Título " + id, "Mensaje " + id);
+            dto.setUserId(7);
+            client.post().uri("/v1/notification").contentType(MediaType.APPLICATION_JSON).bodyValue(dto)
+                    .exchange().expectStatus().isCreated();
+        }
+        createTestNotification(NOTIFICATION_ID_OK);
+
+        // ACT
+        List<NotificationDto> listed = client.get()
+                .uri("/v1/notification?userId=7&limit=2")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(NotificationDto.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        // ASSERT
+        assertEquals(2, listed.size());
+        assertEquals(203, listed.get(0).getNotificationId());
+        assertEquals(202, listed.get(1).getNotificationId());
+    }
+
+    @Test
+    void searchNotifications_RanksTitleMatchesFirst() {
+        // ARRANGE: el término aparece en el título de una y solo en el mensaje de la otra
+        client.post().uri("/v1/notification").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new NotificationDto(301, "Aviso general", "Recuerde la devolución del préstamo"))
+                .exchange().expectStatus().isCreated();
+        client.post().uri("/v1/notification").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new NotificationDto(302, "Devolución pendiente", "Tiene un libro por devolver"))
+                .exchange().expectStatus().isCreated();
+        createTestNotification(NOTIFICATION_ID_OK);
+
+        // ACT & ASSERT
+        client.get()
+                .uri("/v1/notification/search?q=devolución")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].notificationId").isEqualTo(302);
+    }
+
+    @Test
+    void ingestNotifications_ReportsPerItem() {
+        // ARRANGE: una válida, una duplicada y una que no pasa la validación
+        createTestNotification(NOTIFICATION_ID_OK);
+        List<NotificationDto> items = List.of(
+                new NotificationDto(401, "Título 401", "Mensaje 401"),
+                new NotificationDto(NOTIFICATION_ID_OK, "Duplicada", "Mensaje duplicado"),
+                new NotificationDto(402, "", "Mensaje 402"));
+
+        // ACT
+        List<NotificationBulkItemResultDto> results = client.post()
+                .uri("/v1/notification/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(items)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(NotificationBulkItemResultDto.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        // ASSERT
+        assertEquals(3, results.size());
+        assertEquals("CREATED", results.get(0).getResult());
+        assertEquals("DUPLICATE_KEY", results.get(1).getResult());
+        assertEquals("INVALID", results.get(2).getResult());
+        client.get().uri("/v1/notification/401").exchange().expectStatus().isOk();
+    }
+
+    @Test
+    void deleteNotifications_ByIds_ReturnsCount() {
+        // ARRANGE
+        createTestNotification(NOTIFICATION_ID_OK);
+        createTestNotification(102);
+
+        // ACT & ASSERT: el ID inexistente no cuenta como eliminado
+        client.post()
+                .uri("/v1/notification/bulk-delete")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new NotificationBulkDeleteDto(List.of(NOTIFICATION_ID_OK, 102, NOTIFICATION_ID_NOT_FOUND), null, null))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.deletedCount").isEqualTo(2);
+
+        client.get().uri("/v1/notification/102").exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void deleteNotifications_WithoutCriteria_Unprocessable() {
+        client.post()
+                .uri("/v1/notification/bulk-delete")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new NotificationBulkDeleteDto())
+                .exchange()
+                .expectStatus().isEqualTo(422);
+    }
+
+    @Test
+    void getNotification_AfterUpdateAndDelete_NotStale() {
+        // ARRANGE: se crea y se lee una vez para que quede en la caché
+        createTestNotification(NOTIFICATION_ID_OK);
+        client.get().uri("/v1/notification/" + NOTIFICATION_ID_OK).exchange().expectStatus().isOk();
+
+        // ACT: la actualización debe refrescar la entrada de la caché
+        client.put()
+                .uri("/v1/notification/" + NOTIFICATION_ID_OK)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new NotificationDto(NOTIFICATION_ID_OK, "Título Nuevo", "Mensaje Nuevo"))
+                .exchange()
+                .expectStatus().isOk();
+
+        // ASSERT
+        client.get()
+                .uri("/v1/notification/" + NOTIFICATION_ID_OK)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.titulo").isEqualTo("Título Nuevo");
+
+        // ACT & ASSERT: el borrado debe invalidar la entrada
+        client.delete().uri("/v1/notification/" + NOTIFICATION_ID_OK).exchange().expectStatus().isNoContent();
+        client.get().uri("/v1/notification/" + NOTIFICATION_ID_OK).exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void applyEventBatch_ReportsPerEvent() {
+        // ARRANGE: una notificación existente para provocar una llave duplicada dentro del lote
+        createTestNotification(NOTIFICATION_ID_OK);
+
+        List<Event<Integer, NotificationDto>> batch = List.of(
+                new Event<>(Event.Type.CREATE, 102, new NotificationDto(102, "Título 102", "Mensaje 102")),
+                new Event<>(Event.Type.CREATE, NOTIFICATION_ID_OK, new NotificationDto(NOTIFICATION_ID_OK, "Duplicada", "Mensaje duplicado")),
+                new Event<>(Event.Type.DELETE, 102, null),
+                new Event<>(Event.Type.CREATE, 0, new NotificationDto(0, "Inválida", "Mensaje inválido")));
+
+        // ACT
+        List<NotificationBulkResult> results = notificationService.applyEventBatch(batch).collectList().block();
+
+        // ASSERT: un resultado por evento, en el mismo orden del lote
+        assertEquals(4, results.size());
+        assertEquals(NotificationBulkResult.Outcome.APPLIED, results.get(0).outcome());
+        assertEquals(NotificationBulkResult.Outcome.DUPLICATE_KEY, results.get(1).outcome());
+        assertEquals(NotificationBulkResult.Outcome.APPLIED, results.get(2).outcome());
+        assertEquals(NotificationBulkResult.Outcome.INVALID, results.get(3).outcome());
+        assertTrue(repository.findByNotificationId(102).blockOptional().isEmpty());
+    }
+
+    @Test
+    void findViewByNotificationId_ReturnsProjectedFields() {
+        // ARRANGE
+        NotificationDto created = createTestNotification(NOTIFICATION_ID_OK);
+
+        // ACT
+        NotificationView view = repository.findViewByNotificationId(NOTIFICATION_ID_OK).block();
+
+        // ASSERT: la proyección trae todos los campos que se exponen en las lecturas
+        assertEquals(NOTIFICATION_ID_OK, view.notificationId());
+        assertEquals(created.getTitulo(), view.titulo());
+        assertEquals(created.getMensaje(), view.mensaje());
+        assertEquals("ENVIADO", view.status());
+        assertEquals(0, view.version());
+        assertTrue(view.id() != null);
+    }
+
+    @Test
+    void getNotificationCounts_FollowsCreateUpdateAndDelete() {
+        // ARRANGE: usuario propio del test, los contadores no se borran entre tests
+        int userId = 4201;
+        for (int notificationId = 201; notificationId <= 203; notificationId++) {
+            NotificationDto dto = new NotificationDto(notificationId, "Título " + notificationId, "Mensaje " + notificationId);
+            dto.setUserId(userId);
+            notificationService.createNotification(dto).block();
+        }
+
+        // ACT: una se marca como leída y otra se elimina
+        NotificationDto read = new NotificationDto(201, "Título 201", "Mensaje 201");
+        read.setStatus("LEIDO");
+        notificationService.updateNotification(201, read).block();
+        notificationService.deleteNotification(202).block();
+
+        // ASSERT
+        NotificationCountsDto counts = notificationService.getNotificationCounts(userId).block();
+        assertEquals(2, counts.getTotal());
+        assertEquals(1, counts.getUnread());
+        assertEquals(1L, counts.getByStatus().get("LEIDO"));
+    }
+
+    @Test
+    void getNotification_FallsBackToArchive() {
+        // ARRANGE: una notificación en estado terminal y otra activa
+        NotificationDto archived = new NotificationDto(301, "Título 301", "Mensaje 301");
+        archived.setStatus("ARCHIVADO");
+        notificationService.createNotification(archived).block();
+        createTestNotification(302);
+
+        // ACT
+        long moved = archiver.archiveOnce().block();
+
+        // ASSERT: solo se movió la terminal, y se sigue leyendo por ID como antes
+        assertEquals(1, moved);
+        assertTrue(repository.findByNotificationId(301).blockOptional().isEmpty());
+        assertTrue(repository.findByNotificationId(302).blockOptional().isPresent());
+        client.get()
+                .uri("/v1/notification/301")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.titulo").isEqualTo("Título 301");
+
+        // Y al eliminarla desaparece también del archivo
+        notificationService.deleteNotification(301).block();
+        client.get()
+                .uri("/v1/notification/301")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
     /**
      * Método de ayuda para crear una notificación de prueba reutilizable.
      */
@@ -0,0 +1,36 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class NotificationETagsTests {
+
+    @Test
+    void of_QuotesVersionAndTreatsMissingAsZero() {
+        assertEquals("\"5\"", NotificationETags.of(5));
+        assertEquals("\"0\"", NotificationETags.of(null));
+    }
+
+    @Test
+    void expectedVersions_ParsesStrongTagsOnly() {
+        assertEquals(List.of(3, 4), NotificationETags.expectedVersions(ifMatch("\"3\", W/\"7\", \"4\"")));
+        assertEquals(List.of(), NotificationETags.expectedVersions(ifMatch("W/\"3\", \"abc\"")));
+    }
+
+    @Test
+    void expectedVersions_NullWithoutHeaderOrWithWildcard() {
+        assertNull(NotificationETags.expectedVersions(new HttpHeaders()));
+        assertNull(NotificationETags.expectedVersions(ifMatch("*")));
+    }
+
+    private static HttpHeaders ifMatch(String value) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.IF_MATCH, value);
+        return headers;
+    }
+}
@@ -0,0 +1,26 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.logging;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.spi.NOPLoggingEventBuilder;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class SampledLoggerTests {
+
+    @Test
+    void sample_ZeroRateNeverLogs() {
+        SampledLogger sampledLogger = new SampledLogger(0);
+
+        for (int i = 0; i < 100; i++) {
+            assertSame(NOPLoggingEventBuilder.singleton(), sampledLogger.sample());
+        }
+    }
+
+    @Test
+    void sample_FullRateAlwaysLogs() {
+        SampledLogger sampledLogger = new SampledLogger(1);
+
+        assertNotSame(NOPLoggingEventBuilder.singleton(), sampledLogger.sample());
+    }
+}
@@ -0,0 +1,108 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.messaging;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTests {
+
+    @Test
+    void acquire_WaitsForAPermitWhenLimitIsReached() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(new SimpleMeterRegistry(), true, 2, 1, 10, 1000, 0.5);
+        long first = limiter.acquire().block();
+        limiter.acquire().block();
+
+        AtomicLong third = new AtomicLong();
+        Disposable waiting = limiter.acquire().subscribe(third::set);
+        assertEquals(0, third.get());
+        assertEquals(2, limiter.getInFlight());
+
+        limiter.release(first);
+
+        assertTrue(third.get() > 0);
+        assertEquals(2, limiter.getInFlight());
+        waiting.dispose();
+    }
+
+    @Test
+    void acquire_CancelledWaiterDoesNotKeepAPermit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(null, true, 1, 1, 1, 1000, 0.5);
+        long first = limiter.acquire().block();
+
+        AtomicLong cancelled = new AtomicLong();
+        limiter.acquire().subscribe(cancelled::set).dispose();
+        limiter.release(first);
+
+        assertEquals(0, cancelled.get());
+        assertEquals(0, limiter.getInFlight());
+        assertTrue(limiter.acquire().block() > 0);
+    }
+
+    @Test
+    void acquire_CancellationsRacingWithGrantsNeverLeakPermits() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(null, true, 4, 4, 4, 60_000, 0.5);
+        ConcurrentLinkedQueue<Long> granted = new ConcurrentLinkedQueue<>();
+        for (int round = 0; round < 200; round++) {
+            List<Disposable> waiting = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                waiting.add(limiter.acquire().subscribe(granted::add));
+            }
+            // Mientras se devuelven permisos (y se conceden a los que esperan), otro hilo cancela a todos.
+            Thread canceller = new Thread(() -> waiting.forEach(Disposable::dispose));
+            canceller.start();
+            Long held;
+            while ((held = granted.poll()) != null) {
+                limiter.release(held);
+            }
+            canceller.join();
+            while ((held = granted.poll()) != null) {
+                limiter.release(held);
+            }
+            assertEquals(0, limiter.getInFlight(), "Ronda " + round);
+        }
+    }
+
+    @Test
+    void release_SlowSamplesShrinkAndFastSamplesGrowTheLimit() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(null, true, 10, 1, 20, 50, 0.5);
+
+        long admittedAt = limiter.acquire().block();
+        Thread.sleep(80);
+        limiter.release(admittedAt);
+        assertEquals(5, limiter.getLimit());
+
+        // Con todos los permisos en uso, cada muestra rápida suma 1/limit.
+        for (int i = 0; i < 30; i++) {
+            long[] held = new long[limiter.getLimit()];
+            for (int j = 0; j < held.length; j++) {
+                held[j] = limiter.acquire().block();
+            }
+            for (long at : held) {
+                limiter.release(at);
+            }
+        }
+        assertTrue(limiter.getLimit() > 5, "Límite: " + limiter.getLimit());
+    }
+
+    @Test
+    void onDropped_ShrinksOncePerGeneration() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(null, true, 16, 2, 16, 1000, 0.5);
+        long first = limiter.acquire().block();
+        long second = limiter.acquire().block();
+
+        limiter.onDropped(first);
+        limiter.onDropped(second);
+        assertEquals(8, limiter.getLimit());
+
+        limiter.onDropped(limiter.acquire().block());
+        assertEquals(4, limiter.getLimit());
+    }
+}
@@ -0,0 +1,91 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.messaging;
+
+import bo.edu.ucb.microservices.dto.notification.NotificationDto;
+import bo.edu.ucb.microservices.util.events.Event;
+import bo.edu.ucb.microservices.util.exceptions.InvalidInputException;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FailedEventRouterTests {
+
+    private final StreamBridge streamBridge = mock(StreamBridge.class);
+    private final FailedEventRouter router = new FailedEventRouter(streamBridge, true, "notifications.retry",
+            List.of(1000L, 10000L), "notifications.dlq");
+    private final Event<Integer, NotificationDto> event =
+            new Event<>(Event.Type.CREATE, 101, new NotificationDto(101, "Título", "Mensaje"));
+
+    @Test
+    void route_RetryableErrorGoesToRetryDestination() {
+        when(streamBridge.send(anyString(), any())).thenReturn(true);
+        long before = System.currentTimeMillis();
+
+        FailedEventRouter.Route route = router.route(event, new IllegalStateException("Sin conexión"), 1).block();
+
+        assertEquals(FailedEventRouter.Route.RETRY, route);
+        MessageHeaders headers = sentTo("notifications.retry").getHeaders();
+        assertEquals(2, FailedEventRouter.attemptOf(headers));
+        assertTrue(FailedEventRouter.notBeforeOf(headers) >= before + 10000L);
+        assertEquals(IllegalStateException.class.getName(), headers.get(FailedEventRouter.EXCEPTION_CLASS_HEADER));
+    }
+
+    @Test
+    void route_RetriesExhaustedGoesToDeadLetter() {
+        when(streamBridge.send(anyString(), any())).thenReturn(true);
+
+        FailedEventRouter.Route route = router.route(event, new IllegalStateException("Sin conexión"), 2).block();
+
+        assertEquals(FailedEventRouter.Route.DEAD_LETTER, route);
+        assertEquals(2, FailedEventRouter.attemptOf(sentTo("notifications.dlq").getHeaders()));
+    }
+
+    @Test
+    void route_InvalidEventGoesStraightToDeadLetter() {
+        when(streamBridge.send(anyString(), any())).thenReturn(true);
+
+        FailedEventRouter.Route route = router.route(event, new InvalidInputException("Título vacío"), 0).block();
+
+        assertEquals(FailedEventRouter.Route.DEAD_LETTER, route);
+        sentTo("notifications.dlq");
+    }
+
+    @Test
+    void route_SendFailureIsReportedAsLost() {
+        when(streamBridge.send(anyString(), any())).thenThrow(new IllegalStateException("Broker caído"));
+
+        assertEquals(FailedEventRouter.Route.LOST, router.route(event, new IllegalStateException(), 0).block());
+    }
+
+    @Test
+    void headers_AcceptNumbersTextAndBytes() {
+        assertEquals(3, FailedEventRouter.attemptOf(new MessageHeaders(Map.of(FailedEventRouter.ATTEMPT_HEADER, 3L))));
+        assertEquals(3, FailedEventRouter.attemptOf(new MessageHeaders(Map.of(FailedEventRouter.ATTEMPT_HEADER, "3"))));
+        assertEquals(3, FailedEventRouter.attemptOf(new MessageHeaders(Map.of(FailedEventRouter.ATTEMPT_HEADER,
+                "3".getBytes(StandardCharsets.UTF_8)))));
+        assertEquals(0, FailedEventRouter.attemptOf(new MessageHeaders(Map.of(FailedEventRouter.ATTEMPT_HEADER, "x"))));
+        assertEquals(0, FailedEventRouter.notBeforeOf(new MessageHeaders(Map.of())));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Message<Event<?, ?>> sentTo(String destination) {
+        ArgumentCaptor<Message<Event<?, ?>>> message = ArgumentCaptor.forClass(Message.class);
+        verify(streamBridge).send(eq(destination), message.capture());
+        assertEquals(event, message.getValue().getPayload());
+        return message.getValue();
+    }
+}
@@ -0,0 +1,33 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.messaging;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InFlightEventsTests {
+
+    private final InFlightEvents inFlightEvents = new InFlightEvents();
+
+    @Test
+    void awaitIdle_WaitsUntilEventsFinish() throws InterruptedException {
+        inFlightEvents.enter();
+        inFlightEvents.enter();
+        Mono.delay(Duration.ofMillis(50)).subscribe(tick -> inFlightEvents.exit(2));
+
+        assertTrue(inFlightEvents.awaitIdle(Duration.ofSeconds(5)));
+        assertEquals(0, inFlightEvents.count());
+    }
+
+    @Test
+    void awaitIdle_GivesUpAfterTimeout() throws InterruptedException {
+        inFlightEvents.enter();
+
+        assertFalse(inFlightEvents.awaitIdle(Duration.ofMillis(20)));
+        assertEquals(1, inFlightEvents.count());
+    }
+}
@@ -0,0 +1,57 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.messaging;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeyedLaneSchedulerTests {
+
+    private record Item(int key, int sequence) {
+    }
+
+    @Test
+    void scheduleEach_KeepsOrderPerKey() {
+        KeyedLaneScheduler scheduler = new KeyedLaneScheduler(4, 8);
+
+        // 10 claves con 20 elementos cada una, con retardos que desordenarían un flatMap sin carriles
+        Flux<Item> source = Flux.range(0, 200).map(i -> new Item(i % 10, i / 10));
+
+        List<Item> processed = scheduler.scheduleEach(source, Item::key,
+                        item -> Mono.delay(Duration.ofMillis((item.sequence() * 7L + item.key()) % 3)).thenReturn(item))
+                .collectList()
+                .block();
+
+        assertEquals(200, processed.size());
+        Map<Integer, List<Integer>> sequencesByKey = processed.stream()
+                .collect(Collectors.groupingBy(Item::key, Collectors.mapping(Item::sequence, Collectors.toList())));
+        sequencesByKey.values().forEach(sequences -> {
+            for (int i = 0; i < sequences.size(); i++) {
+                assertEquals(i, sequences.get(i));
+            }
+        });
+    }
+
+    @Test
+    void scheduleEach_BoundsConcurrencyToLaneCount() {
+        KeyedLaneScheduler scheduler = new KeyedLaneScheduler(3, 4);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        scheduler.scheduleEach(Flux.range(0, 100), i -> i,
+                        i -> Mono.fromRunnable(() -> maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max))
+                                .then(Mono.delay(Duration.ofMillis(1)))
+                                .doOnTerminate(inFlight::decrementAndGet))
+                .blockLast();
+
+        assertTrue(maxInFlight.get() <= 3, "Máximo en vuelo: " + maxInFlight.get());
+    }
+}
@@ -0,0 +1,129 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.messaging;
+
+import bo.edu.ucb.microservices.core.notification.ms_notification.model.OutboxMessage;
+import bo.edu.ucb.microservices.core.notification.ms_notification.services.LeaderLease;
+import bo.edu.ucb.microservices.dto.notification.NotificationDto;
+import bo.edu.ucb.microservices.util.events.Event;
+import bo.edu.ucb.microservices.util.events.EventPublisher;
+import com.mongodb.client.result.DeleteResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.messaging.Message;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxRelayTests {
+
+    private final ReactiveMongoOperations mongoOperations = mock(ReactiveMongoOperations.class);
+    private final StreamBridge streamBridge = mock(StreamBridge.class);
+    private final LeaderLease lease = mock(LeaderLease.class);
+    private final OutboxRelay relay = new OutboxRelay(mongoOperations, streamBridge, new SimpleMeterRegistry(), lease,
+            true, "notificationChanges-out-0", 10, 500, 30);
+
+    OutboxRelayTests() {
+        when(lease.tryAcquire(eq(OutboxRelay.LEASE_NAME), any())).thenReturn(Mono.just(true));
+    }
+
+    @Test
+    void relayOnce_PublishesInOrderAndRemovesPublished() {
+        List<OutboxMessage> batch = List.of(message("a", Event.Type.CREATE, 1, 1), message("b", Event.Type.UPDATE, 1, 2),
+                message("c", Event.Type.DELETE, 2, 1));
+        List<Object> keys = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> keys.add(((Message<?>) invocation.getArgument(1)).getHeaders()
+                .get(EventPublisher.PARTITION_KEY_HEADER)))
+                .when(streamBridge).send(eq("notificationChanges-out-0"), any());
+        stubOutbox(batch);
+
+        assertEquals(3L, relay.relayOnce().block());
+
+        assertEquals(List.of(1, 1, 2), keys);
+        assertEquals(List.of("a", "b", "c"), removedIds());
+    }
+
+    @Test
+    void relayOnce_KeepsFailedMessageAndTheOnesAfterIt() {
+        List<OutboxMessage> batch = List.of(message("a", Event.Type.CREATE, 1, 1), message("b", Event.Type.UPDATE, 1, 2),
+                message("c", Event.Type.DELETE, 2, 1));
+        doAnswer(invocation -> {
+            Event<?, ?> event = (Event<?, ?>) ((Message<?>) invocation.getArgument(1)).getPayload();
+            return event.getEventType() != Event.Type.UPDATE;
+        }).when(streamBridge).send(eq("notificationChanges-out-0"), any());
+        stubOutbox(batch);
+
+        assertEquals(1L, relay.relayOnce().block());
+
+        assertEquals(List.of("a"), removedIds());
+    }
+
+    @Test
+    void relayOnce_PublishesEarlierSequenceOutsideTheBatchFirst() {
+        // El UPDATE (secuencia 2) tiene un _id menor que el CREATE (secuencia 1) y la tanda solo trae el UPDATE.
+        OutboxMessage update = message("a", Event.Type.UPDATE, 1, 2);
+        OutboxMessage create = message("b", Event.Type.CREATE, 1, 1);
+        List<Object> types = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> types.add(((Event<?, ?>) ((Message<?>) invocation.getArgument(1)).getPayload()).getEventType()))
+                .when(streamBridge).send(eq("notificationChanges-out-0"), any());
+        stubOutbox(List.of(update), List.of(update, create));
+
+        assertEquals(2L, relay.relayOnce().block());
+
+        assertEquals(List.of(Event.Type.CREATE, Event.Type.UPDATE), types);
+        assertEquals(List.of("b", "a"), removedIds());
+    }
+
+    @Test
+    void relayOnce_DoesNothingWithoutTheLease() {
+        when(lease.tryAcquire(eq(OutboxRelay.LEASE_NAME), any())).thenReturn(Mono.just(false));
+        when(mongoOperations.estimatedCount(OutboxMessage.class)).thenReturn(Mono.just(3L));
+
+        assertEquals(0L, relay.relayOnce().block());
+
+        verify(mongoOperations, never()).find(any(Query.class), eq(OutboxMessage.class));
+        verify(streamBridge, never()).send(any(), any());
+    }
+
+    private void stubOutbox(List<OutboxMessage> batch) {
+        stubOutbox(batch, batch);
+    }
+
+    // La primera lectura es la tanda por _id; la segunda, los pendientes de sus notificaciones.
+    private void stubOutbox(List<OutboxMessage> batch, List<OutboxMessage> pendingOfBatch) {
+        when(mongoOperations.find(any(Query.class), eq(OutboxMessage.class)))
+                .thenReturn(Flux.fromIterable(batch), Flux.fromIterable(pendingOfBatch));
+        when(mongoOperations.remove(any(Query.class), eq(OutboxMessage.class)))
+                .thenReturn(Mono.just(DeleteResult.acknowledged(1)));
+        when(mongoOperations.estimatedCount(OutboxMessage.class)).thenReturn(Mono.just(0L));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> removedIds() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoOperations).remove(query.capture(), eq(OutboxMessage.class));
+        return (List<String>) query.getValue().getQueryObject().get("_id", org.bson.Document.class).get("$in");
+    }
+
+    private static OutboxMessage message(String id, Event.Type type, int notificationId, long sequence) {
+        OutboxMessage message = new OutboxMessage(type, notificationId, sequence,
+                new NotificationDto(notificationId, "Título", "Mensaje"), new Date());
+        message.setId(id);
+        return message;
+    }
+}
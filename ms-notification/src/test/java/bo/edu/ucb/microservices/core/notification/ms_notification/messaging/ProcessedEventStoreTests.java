@@ -0,0 +1,52 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.messaging;
+
+import bo.edu.ucb.microservices.dto.notification.NotificationDto;
+import bo.edu.ucb.microservices.util.events.Event;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProcessedEventStoreTests {
+
+    // Solo el conjunto en memoria; el registro en MongoDB queda deshabilitado.
+    private final ProcessedEventStore store = new ProcessedEventStore(null, true, 10, 30, false, 168);
+
+    @Test
+    void isDuplicate_AfterMarkProcessed() {
+        Event<Integer, NotificationDto> event = new Event<>(Event.Type.CREATE, 101, new NotificationDto(101, "Título", "Mensaje"));
+
+        assertFalse(store.isDuplicate(event).block());
+        store.markProcessed(event).block();
+        assertTrue(store.isDuplicate(event).block());
+    }
+
+    @Test
+    void isDuplicate_DifferentEventSameKey() {
+        Event<Integer, NotificationDto> create = new Event<>(Event.Type.CREATE, 101, new NotificationDto(101, "Título", "Mensaje"));
+        Event<Integer, NotificationDto> delete = new Event<>(Event.Type.DELETE, 101, null);
+
+        store.markProcessed(create).block();
+
+        assertFalse(store.isDuplicate(delete).block());
+    }
+
+    @Test
+    void isDuplicate_EventWithoutIdentity() {
+        Event<Integer, NotificationDto> event = new Event<>();
+
+        store.markProcessed(event).block();
+
+        assertFalse(store.isDuplicate(event).block());
+    }
+
+    @Test
+    void ttlIndex_OnlyWithMongoRegistry() {
+        assertNull(store.ttlIndex());
+
+        ProcessedEventStore mongoStore = new ProcessedEventStore(null, true, 10, 30, true, 2);
+        assertEquals(7200L, mongoStore.ttlIndex().getIndexOptions().get("expireAfterSeconds"));
+    }
+}
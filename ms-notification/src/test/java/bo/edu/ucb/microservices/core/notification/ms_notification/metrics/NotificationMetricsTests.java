@@ -0,0 +1,60 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.metrics;
+
+import bo.edu.ucb.microservices.util.events.Event;
+import bo.edu.ucb.microservices.util.exceptions.NotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NotificationMetricsTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final NotificationMetrics metrics = new NotificationMetrics(registry);
+
+    @Test
+    void timeService_TagsOutcome() {
+        Mono<String> found = metrics.timeService("get", Mono.just("ok"));
+        Mono<String> notFound = metrics.timeService("get", Mono.error(new NotFoundException("no existe")));
+
+        StepVerifier.create(found).expectNext("ok").verifyComplete();
+        StepVerifier.create(notFound).expectError(NotFoundException.class).verify();
+
+        assertEquals(1, registry.get(NotificationMetrics.SERVICE_TIMER)
+                .tags("operation", "get", "outcome", "success").timer().count());
+        assertEquals(1, registry.get(NotificationMetrics.SERVICE_TIMER)
+                .tags("operation", "get", "outcome", "not_found").timer().count());
+    }
+
+    @Test
+    void timeRepository_MeasuresOnlyWhenSubscribed() {
+        Flux<Integer> query = metrics.timeRepository("findPage", Flux.just(1, 2, 3));
+
+        // Armar el Flux no mide nada; la consulta ocurre al suscribirse.
+        assertNull(registry.find(NotificationMetrics.REPOSITORY_TIMER).timer());
+        StepVerifier.create(query).expectNextCount(3).verifyComplete();
+        assertEquals(1, registry.get(NotificationMetrics.REPOSITORY_TIMER).tag("method", "findPage").timer().count());
+    }
+
+    @Test
+    void recordEvent_LatencyOnlyForAppliedEvents() {
+        ZonedDateTime createdAt = ZonedDateTime.now().minusSeconds(2);
+
+        metrics.recordEvent(Event.Type.CREATE, "applied", createdAt);
+        metrics.recordEvent(Event.Type.CREATE, "duplicate", createdAt);
+
+        assertEquals(1, registry.get(NotificationMetrics.EVENTS_COUNTER)
+                .tags("type", "CREATE", "outcome", "duplicate").counter().count());
+        assertEquals(1, registry.get(NotificationMetrics.EVENT_LATENCY_TIMER).timer().count());
+        assertTrue(registry.get(NotificationMetrics.EVENT_LATENCY_TIMER).timer()
+                .totalTime(TimeUnit.SECONDS) >= 2);
+    }
+}
@@ -0,0 +1,251 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.repository;
+
+import bo.edu.ucb.microservices.core.notification.ms_notification.model.Notification;
+import bo.edu.ucb.microservices.core.notification.ms_notification.model.NotificationView;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class InMemoryNotificationRepositoryTests {
+
+    private final InMemoryNotificationRepository repository = new InMemoryNotificationRepository();
+
+    @Test
+    void save_AssignsIdAndRejectsDuplicateNotificationId() {
+        Notification saved = repository.save(notification(1, 7, "ENVIADO")).block();
+
+        assertNotNull(saved.getId());
+        assertEquals(0, saved.getVersion());
+        StepVerifier.create(repository.save(notification(1, 8, "ENVIADO")))
+                .expectError(DuplicateKeyException.class)
+                .verify();
+        StepVerifier.create(repository.findByUserId(8)).verifyComplete();
+    }
+
+    @Test
+    void save_StaleVersionFailsWithOptimisticLock() {
+        repository.save(notification(1, 7, "ENVIADO")).block();
+        Notification first = repository.findByNotificationId(1).block();
+        Notification second = repository.findByNotificationId(1).block();
+
+        first.setStatus("LEIDO");
+        assertEquals(1, repository.save(first).block().getVersion());
+
+        second.setStatus("ARCHIVADO");
+        StepVerifier.create(repository.save(second))
+                .expectError(OptimisticLockingFailureException.class)
+                .verify();
+        assertEquals("LEIDO", repository.findByNotificationId(1).block().getStatus());
+    }
+
+    @Test
+    void findPage_NewestFirstWithKeyset() {
+        for (int id = 1; id <= 5; id++) {
+            repository.save(notification(id, id % 2 == 0 ? 8 : 7, "ENVIADO")).block();
+        }
+
+        List<NotificationView> firstPage = repository.findPage(7, null, null, 2).collectList().block();
+        assertEquals(List.of(5, 3), firstPage.stream().map(NotificationView::notificationId).toList());
+
+        List<NotificationView> secondPage = repository.findPage(7, null, firstPage.get(1).id(), 2).collectList().block();
+        assertEquals(List.of(1), secondPage.stream().map(NotificationView::notificationId).toList());
+    }
+
+    @Test
+    void updateAndRemove_KeepIndexesConsistent() {
+        repository.save(notification(1, 7, "ENVIADO")).block();
+
+        NotificationUpdate update = repository.updateByNotificationId(1, new NotificationChanges("Nuevo", "Mensaje nuevo", "LEIDO")).block();
+        assertEquals("ENVIADO", update.previous().getStatus());
+        assertEquals("LEIDO", update.current().getStatus());
+        assertEquals(1, update.current().getVersion());
+        StepVerifier.create(repository.findByStatus("LEIDO")).expectNextCount(1).verifyComplete();
+        StepVerifier.create(repository.searchText("NUEVO", 7, 0, 10)).expectNextCount(1).verifyComplete();
+
+        List<String> removable = repository.findRemovable(null, 7, "LEIDO", 10).map(Notification::getId).collectList().block();
+        assertEquals(1, removable.size());
+        StepVerifier.create(repository.deleteRemovable(removable, null, 7, "LEIDO")).expectNext(1L).verifyComplete();
+        StepVerifier.create(repository.findByUserId(7)).verifyComplete();
+        // El notificationId queda libre para reutilizarse.
+        StepVerifier.create(repository.save(notification(1, 7, "ENVIADO"))).expectNextCount(1).verifyComplete();
+    }
+
+    @Test
+    void searchText_RanksTitleMatchesFirstAndHonoursExclusionsAndUser() {
+        repository.save(new Notification(1, "Aviso", "Devolución del libro pendiente", 7, "ENVIADO", null)).block();
+        repository.save(new Notification(2, "Devolución pendiente", "El libro vence mañana", 7, "ENVIADO", null)).block();
+        repository.save(new Notification(3, "Devolución", "Multa por retraso", 7, "ENVIADO", null)).block();
+        repository.save(new Notification(4, "Devolución pendiente", "Otro usuario", 8, "ENVIADO", null)).block();
+
+        List<Integer> found = repository.searchText("DEVOLUCIÓN -multa", 7, 0, 10)
+                .map(Notification::getNotificationId).collectList().block();
+
+        assertEquals(List.of(2, 1), found);
+        StepVerifier.create(repository.searchText("\"libro vence\"", null, 0, 10).map(Notification::getNotificationId))
+                .expectNext(2)
+                .verifyComplete();
+    }
+
+    @Test
+    void updateWithExpectedVersions_OnlyAppliesOnMatchingVersion() {
+        repository.save(notification(1, 7, "ENVIADO")).block();
+        NotificationChanges changes = new NotificationChanges("Nuevo", "Mensaje nuevo", "LEIDO");
+
+        StepVerifier.create(repository.updateByNotificationId(1, changes, List.of(3))).verifyComplete();
+        StepVerifier.create(repository.findVersionByNotificationId(1)).expectNext(0).verifyComplete();
+
+        assertEquals(1, repository.updateByNotificationId(1, changes, List.of(2, 0)).block().current().getVersion());
+        StepVerifier.create(repository.findVersionByNotificationId(1)).expectNext(1).verifyComplete();
+        StepVerifier.create(repository.findVersionByNotificationId(2)).verifyComplete();
+    }
+
+    @Test
+    void deleteRemovable_SkipsNotificationsThatNoLongerMatch() {
+        for (int id = 1; id <= 3; id++) {
+            repository.save(notification(id, 7, "ENVIADO")).block();
+        }
+        List<String> firstBatch = repository.findRemovable(null, 7, "ENVIADO", 2).map(Notification::getId).collectList().block();
+        assertEquals(2, firstBatch.size());
+        repository.updateByNotificationId(1, new NotificationChanges("Nuevo", "Mensaje nuevo", "LEIDO")).block();
+
+        StepVerifier.create(repository.deleteRemovable(firstBatch, null, 7, "ENVIADO")).expectNext(1L).verifyComplete();
+        StepVerifier.create(repository.findRemovable(null, 7, "ENVIADO", 2)).expectNextCount(1).verifyComplete();
+        StepVerifier.create(repository.findByStatus("LEIDO")).expectNextCount(1).verifyComplete();
+    }
+
+    @Test
+    void moveToArchive_SecondRunnerKeepsArchivedCopy() {
+        repository.save(notification(1, 7, "ARCHIVADO")).block();
+        repository.save(notification(2, 7, "ARCHIVADO")).block();
+        List<Notification> batch = repository.findAll().collectList().block();
+
+        StepVerifier.create(repository.moveToArchive(batch)).expectNextCount(2).verifyComplete();
+        // Una segunda instancia con la misma tanda no mueve nada, pero tampoco borra las copias.
+        StepVerifier.create(repository.moveToArchive(batch)).verifyComplete();
+
+        StepVerifier.create(repository.findArchivedViewByNotificationId(1)).expectNextCount(1).verifyComplete();
+        StepVerifier.create(repository.findArchivedViewByNotificationId(2)).expectNextCount(1).verifyComplete();
+    }
+
+    @Test
+    void moveToArchive_ChangedNotificationStaysHot() {
+        repository.save(notification(1, 7, "ARCHIVADO")).block();
+        List<Notification> batch = repository.findAll().collectList().block();
+        repository.updateByNotificationId(1, new NotificationChanges("Nuevo", "Mensaje nuevo", null)).block();
+
+        StepVerifier.create(repository.moveToArchive(batch)).verifyComplete();
+
+        StepVerifier.create(repository.findArchivedViewByNotificationId(1)).verifyComplete();
+        StepVerifier.create(repository.findViewByNotificationId(1)).expectNextCount(1).verifyComplete();
+    }
+
+    @Test
+    void updateWithExpectedVersions_OnlyOneConcurrentWriterWins() throws InterruptedException {
+        repository.save(notification(1, 7, "ENVIADO")).block();
+        int writers = 8;
+        List<NotificationUpdate> results = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < writers; i++) {
+            String status = "ESTADO_" + i;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                NotificationUpdate update = repository.updateByNotificationId(1,
+                        new NotificationChanges("Nuevo", "Mensaje nuevo", status), List.of(0)).block();
+                if (update != null) {
+                    results.add(update);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Todos esperaban la versión 0: solo uno la encuentra y los demás no deben reportar éxito.
+        assertEquals(1, results.size());
+        assertEquals(0, results.get(0).previous().getVersion());
+        assertEquals(results.get(0).current().getStatus(), repository.findByNotificationId(1).block().getStatus());
+        StepVerifier.create(repository.findByStatus("ENVIADO")).verifyComplete();
+    }
+
+    @Test
+    void findAll_SortsLikeMongoDb() {
+        repository.save(new Notification(1, "B", "Mensaje", 7, "ENVIADO", null)).block();
+        repository.save(new Notification(2, "a", "Mensaje", null, "ENVIADO", null)).block();
+        repository.save(new Notification(3, "C", "Mensaje", 8, "ENVIADO", null)).block();
+
+        // Los null van primero en orden ascendente y al final en descendente.
+        assertEquals(List.of(2, 1, 3), notificationIds(repository.findAll(Sort.by("userId"))));
+        assertEquals(List.of(3, 1, 2), notificationIds(repository.findAll(Sort.by(Sort.Direction.DESC, "userId"))));
+        assertEquals(List.of(2, 1, 3), notificationIds(repository.findAll(Sort.by(Sort.Order.asc("titulo").ignoreCase()))));
+    }
+
+    @Test
+    void findArchivable_UsesCreationDateAndTerminalStatuses() {
+        Date now = new Date();
+        repository.save(new Notification(1, "Título", "Mensaje", 7, "ENVIADO", new Date(now.getTime() - 10_000))).block();
+        repository.save(new Notification(2, "Título", "Mensaje", 7, "ENVIADO", now)).block();
+        repository.save(new Notification(3, "Título", "Mensaje", 7, "ARCHIVADO", now)).block();
+        repository.updateByNotificationId(2, new NotificationChanges("Título", "Mensaje", "ARCHIVADO")).block();
+
+        List<Integer> archivable = notificationIds(repository.findArchivable(new Date(now.getTime() - 1), List.of("ARCHIVADO"), 10));
+
+        assertEquals(List.of(1, 2, 3), archivable.stream().sorted().toList());
+        assertEquals(1, notificationIds(repository.findArchivable(new Date(now.getTime() - 1), null, 10)).size());
+    }
+
+    @Test
+    void deleteArchivedMatching_UsesArchiveIndexes() {
+        repository.save(notification(1, 7, "ARCHIVADO")).block();
+        repository.save(notification(2, 8, "ARCHIVADO")).block();
+        repository.save(notification(3, 7, "ARCHIVADO")).block();
+        repository.moveToArchive(repository.findAll().collectList().block()).blockLast();
+
+        StepVerifier.create(repository.deleteArchivedMatching(null, 7, null)).expectNext(2L).verifyComplete();
+        StepVerifier.create(repository.findArchivedViewByNotificationId(1)).verifyComplete();
+        StepVerifier.create(repository.deleteArchivedByNotificationId(2)).expectNext(1L).verifyComplete();
+        StepVerifier.create(repository.deleteArchivedMatching(null, null, "ARCHIVADO")).expectNext(0L).verifyComplete();
+    }
+
+    @Test
+    void bulkWrite_ReportsDuplicatesPerCommand() {
+        repository.save(notification(1, 7, "ENVIADO")).block();
+
+        List<NotificationBulkResult> results = repository.bulkWrite(List.of(
+                NotificationBulkCommand.insert(notification(1, 7, "ENVIADO")),
+                NotificationBulkCommand.insert(notification(2, 7, "ENVIADO")),
+                NotificationBulkCommand.delete(3))).collectList().block();
+
+        assertEquals(NotificationBulkResult.Outcome.DUPLICATE_KEY, results.get(0).outcome());
+        assertEquals(NotificationBulkResult.Outcome.APPLIED, results.get(1).outcome());
+        assertEquals(NotificationBulkResult.Outcome.APPLIED, results.get(2).outcome());
+        assertEquals(2L, repository.count().block());
+    }
+
+    private static List<Integer> notificationIds(Flux<Notification> notifications) {
+        return notifications.map(Notification::getNotificationId).collectList().block();
+    }
+
+    private static Notification notification(int notificationId, int userId, String status) {
+        return new Notification(notificationId, "Título " + notificationId, "Mensaje " + notificationId, userId, status, null);
+    }
+}
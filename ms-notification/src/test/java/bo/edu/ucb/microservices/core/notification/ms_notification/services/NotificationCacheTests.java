@@ -0,0 +1,67 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.services;
+
+import bo.edu.ucb.microservices.core.notification.ms_notification.model.NotificationView;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class NotificationCacheTests {
+
+    private final NotificationCache cache = new NotificationCache(new SimpleMeterRegistry(), true, 100, 300);
+
+    @Test
+    void put_KeepsHigherVersionWhenAnOlderReadArrivesLate() {
+        NotificationView updated = view(2, "Actualizado");
+        cache.put(updated);
+
+        // Una lectura iniciada antes de la actualización termina después con la versión anterior.
+        assertEquals(updated, cache.put(view(1, "Anterior")));
+        assertEquals(updated, cache.getByNotificationId(101));
+        assertEquals(updated, cache.getByMongoId("m101"));
+    }
+
+    @Test
+    void put_ReplacesSameOrLowerVersion() {
+        cache.put(view(null, "Sin versión"));
+        NotificationView updated = view(1, "Actualizado");
+
+        assertEquals(updated, cache.put(updated));
+        assertEquals(updated, cache.getByNotificationId(101));
+    }
+
+    @Test
+    void put_DoesNotResurrectANotificationEvictedDuringTheRead() {
+        long generation = cache.generation();
+        // La notificación se elimina mientras la lectura está en curso.
+        cache.evictByNotificationId(101);
+
+        cache.put(view(1, "Leída antes del borrado"), generation);
+        assertNull(cache.getByNotificationId(101));
+        assertNull(cache.getByMongoId("m101"));
+
+        // Una lectura que empieza después del borrado sí se guarda.
+        NotificationView recreated = view(0, "Recreada");
+        cache.put(recreated, cache.generation());
+        assertEquals(recreated, cache.getByNotificationId(101));
+    }
+
+    @Test
+    void put_DoesNotResurrectAfterEvictByMongoIdOrEvictAll() {
+        long generation = cache.generation();
+        // El ID de MongoDB no estaba en la caché, así que no se puede resolver su ID de negocio.
+        cache.evictByMongoId("m101");
+        cache.put(view(1, "Anterior"), generation);
+        assertNull(cache.getByNotificationId(101));
+
+        generation = cache.generation();
+        cache.evictAll();
+        cache.put(view(1, "Anterior"), generation);
+        assertNull(cache.getByMongoId("m101"));
+    }
+
+    private static NotificationView view(Integer version, String titulo) {
+        return new NotificationView("m101", version, 101, titulo, "Mensaje", 7, "ENVIADO");
+    }
+}
@@ -0,0 +1,137 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.services;
+
+import bo.edu.ucb.microservices.core.notification.ms_notification.model.Notification;
+import bo.edu.ucb.microservices.core.notification.ms_notification.model.NotificationCounter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationCountersTests {
+
+    @Test
+    void delta_SameStatusCancelsOut() {
+        // Una actualización que no cambia el estado no debe escribir en los contadores.
+        Map<Integer, Update> updates = new NotificationCounters.Delta()
+                .add(7, "ENVIADO", -1)
+                .add(7, "ENVIADO", 1)
+                .toUpdates();
+
+        assertTrue(updates.isEmpty());
+    }
+
+    @Test
+    void delta_StatusChangeMovesCountKeepingTotal() {
+        Map<Integer, Update> updates = new NotificationCounters.Delta()
+                .add(7, "ENVIADO", -1)
+                .add(7, "LEIDO", 1)
+                .add(8, null, 1)
+                .add(null, "ENVIADO", 1)
+                .toUpdates();
+
+        assertEquals(2, updates.size());
+        Document inc7 = (Document) updates.get(7).getUpdateObject().get("$inc");
+        assertEquals(-1L, inc7.get("byStatus.ENVIADO"));
+        assertEquals(1L, inc7.get("byStatus.LEIDO"));
+        assertEquals(0L, inc7.get("total"));
+        Document inc8 = (Document) updates.get(8).getUpdateObject().get("$inc");
+        assertEquals(1L, inc8.get("byStatus." + NotificationCounters.NO_STATUS));
+    }
+
+    @Test
+    void withoutMongo_CountsAreKeptInMemory() {
+        NotificationCounters counters = new NotificationCounters(null, new SimpleMeterRegistry(), 100, 10, "ENVIADO", false, false);
+        Notification sent = new Notification(1, "Título", "Mensaje", 7, "ENVIADO", null);
+        Notification read = new Notification(1, "Título", "Mensaje", 7, "LEIDO", null);
+
+        counters.created(sent).block();
+        counters.created(new Notification(2, "Título", "Mensaje", 7, "ENVIADO", null)).block();
+        counters.updated(sent, read).block();
+
+        NotificationCounter counter = counters.getCounts(7).block();
+        assertEquals(2, counter.getTotal());
+        assertEquals(1, counters.unreadCount(counter));
+        assertEquals(1, counter.countFor("LEIDO"));
+        assertEquals(0, counters.getCounts(8).block().getTotal());
+    }
+
+    @Test
+    void apply_KeepsNewerCounterWhenResultsArriveOutOfOrder() {
+        ReactiveMongoOperations mongoOperations = mock(ReactiveMongoOperations.class);
+        NotificationCounters counters = new NotificationCounters(mongoOperations, new SimpleMeterRegistry(), 100, 10, "ENVIADO", true, false);
+        // El findAndModify de la segunda escritura termina antes que el de la primera.
+        when(mongoOperations.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(NotificationCounter.class)))
+                .thenReturn(Mono.just(counter(2, 2)), Mono.just(counter(1, 1)));
+
+        counters.created(new Notification(1, "Título", "Mensaje", 7, "ENVIADO", null)).block();
+        counters.created(new Notification(2, "Título", "Mensaje", 7, "ENVIADO", null)).block();
+
+        assertEquals(2, counters.getCounts(7).block().getTotal());
+        verify(mongoOperations, never()).findById(any(), eq(NotificationCounter.class));
+    }
+
+    @Test
+    void apply_WithoutTransactionRecountsWhenTheIncrementFails() {
+        ReactiveMongoOperations mongoOperations = mock(ReactiveMongoOperations.class);
+        NotificationCounters counters = new NotificationCounters(mongoOperations, new SimpleMeterRegistry(), 100, 10, "ENVIADO", true, false);
+        when(mongoOperations.findAndModify(any(Query.class), argThat(update -> update != null && update.modifies("byStatus.ENVIADO")),
+                any(FindAndModifyOptions.class), eq(NotificationCounter.class)))
+                .thenReturn(Mono.error(new DataAccessResourceFailureException("sin conexión")));
+        when(mongoOperations.aggregate(any(Aggregation.class), eq(Notification.class), eq(Document.class)))
+                .thenReturn(Flux.just(new Document("_id", "ENVIADO").append("count", 3), new Document("_id", "LEIDO").append("count", 1)));
+        when(mongoOperations.findAndModify(any(Query.class), argThat(update -> update != null && update.modifies("byStatus")),
+                any(FindAndModifyOptions.class), eq(NotificationCounter.class)))
+                .thenAnswer(invocation -> {
+                    Document set = (Document) ((Update) invocation.getArgument(1)).getUpdateObject().get("$set");
+                    assertEquals(4L, set.get("total"));
+                    assertEquals(Map.of("ENVIADO", 3L, "LEIDO", 1L), set.get("byStatus"));
+                    return Mono.just(counter(4, 5));
+                });
+
+        // La escritura de la notificación no falla; los contadores quedan recontados.
+        StepVerifier.create(counters.created(new Notification(1, "Título", "Mensaje", 7, "ENVIADO", null))).verifyComplete();
+        assertEquals(4, counters.getCounts(7).block().getTotal());
+    }
+
+    @Test
+    void apply_InTransactionPropagatesTheFailure() {
+        ReactiveMongoOperations mongoOperations = mock(ReactiveMongoOperations.class);
+        NotificationCounters counters = new NotificationCounters(mongoOperations, new SimpleMeterRegistry(), 100, 10, "ENVIADO", true, true);
+        when(mongoOperations.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(NotificationCounter.class)))
+                .thenReturn(Mono.error(new DataAccessResourceFailureException("sin conexión")));
+
+        // El error revierte la transacción del outbox, así la notificación y sus contadores no se separan.
+        StepVerifier.create(counters.created(new Notification(1, "Título", "Mensaje", 7, "ENVIADO", null)))
+                .expectError(DataAccessResourceFailureException.class)
+                .verify();
+        verify(mongoOperations, never()).aggregate(any(Aggregation.class), eq(Notification.class), eq(Document.class));
+    }
+
+    private static NotificationCounter counter(long total, long revision) {
+        NotificationCounter counter = new NotificationCounter(7);
+        counter.setTotal(total);
+        counter.setByStatus(Map.of("ENVIADO", total));
+        counter.setRevision(revision);
+        return counter;
+    }
+}
@@ -0,0 +1,57 @@
+package bo.edu.ucb.microservices.core.notification.ms_notification.services;
+
+import bo.edu.ucb.microservices.dto.notification.NotificationDto;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NotificationFeedTests {
+
+    // Sin change stream: solo se reciben las escrituras publicadas por la capa de servicio.
+    private final NotificationFeed feed = new NotificationFeed(null, null, 4, false);
+
+    @Test
+    void subscribe_ReceivesOnlyOwnNotifications() {
+        StepVerifier.create(feed.subscribe(7).take(1))
+                .then(() -> {
+                    feed.publishWrite(notificationFor(8, 1));
+                    feed.publishWrite(notificationFor(7, 2));
+                })
+                .assertNext(dto -> assertEquals(2, dto.getNotificationId()))
+                .verifyComplete();
+    }
+
+    @Test
+    void subscribe_SlowSubscriberKeepsNewest() {
+        // El suscriptor no pide nada mientras llegan 6 notificaciones; con buffer de 4 se quedan las últimas 4.
+        StepVerifier.create(feed.subscribe(7), 0)
+                .then(() -> {
+                    for (int id = 1; id <= 6; id++) {
+                        feed.publishWrite(notificationFor(7, id));
+                    }
+                })
+                .thenRequest(4)
+                .assertNext(dto -> assertEquals(3, dto.getNotificationId()))
+                .expectNextCount(3)
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void subscribe_ChannelRemovedWithLastSubscriber() {
+        feed.subscribe(7).take(1).subscribe();
+        feed.subscribe(7).take(1).subscribe();
+        assertEquals(1, feed.getActiveUserCount());
+
+        feed.publishWrite(notificationFor(7, 1));
+
+        assertEquals(0, feed.getActiveUserCount());
+    }
+
+    private static NotificationDto notificationFor(int userId, int notificationId) {
+        NotificationDto dto = new NotificationDto(notificationId, "Título", "Mensaje");
+        dto.setUserId(userId);
+        return dto;
+    }
+}
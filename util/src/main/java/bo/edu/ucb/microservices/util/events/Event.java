@@ -9,7 +9,9 @@ public class Event <K, T> {
 
     public enum Type {
         CREATE,
-        DELETE
+        DELETE,
+        // Al final: los consumidores existentes pueden depender del orden de CREATE y DELETE.
+        UPDATE
     }
 
     private final Type eventType;
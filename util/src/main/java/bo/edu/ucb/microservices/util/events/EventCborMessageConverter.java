@@ -0,0 +1,91 @@
+package bo.edu.ucb.microservices.util.events;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collections;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.util.MimeType;
+
+/**
+ * Conversor de mensajes para {@link Event} en formato binario CBOR.
+ * <p>
+ * Se negocia por content type: solo convierte mensajes con {@value #EVENT_CBOR_VALUE}, así los productores
+ * que siguen enviando application/json los procesa el conversor JSON de siempre. Para producir en CBOR basta
+ * con configurar el binding de salida con {@code contentType: application/vnd.ucb.event+cbor;version=1}.
+ * <p>
+ * El parámetro 'version' del content type es la versión del esquema del evento. Se aceptan versiones
+ * menores o iguales a {@link #SCHEMA_VERSION} (sin parámetro se asume la 1); los campos desconocidos se
+ * ignoran. Un mensaje con una versión más nueva no se convierte.
+ * <p>
+ * Las fechas se escriben como timestamp numérico en lugar del texto ISO-8601 del JSON, y los campos nulos
+ * se omiten.
+ */
+public class EventCborMessageConverter extends MappingJackson2MessageConverter {
+
+    public static final String EVENT_CBOR_VALUE = "application/vnd.ucb.event+cbor";
+    public static final String VERSION_PARAMETER = "version";
+    public static final int SCHEMA_VERSION = 1;
+
+    public static final MimeType EVENT_CBOR = new MimeType("application", "vnd.ucb.event+cbor",
+            Collections.singletonMap(VERSION_PARAMETER, String.valueOf(SCHEMA_VERSION)));
+
+    public EventCborMessageConverter() {
+        this(Jackson2ObjectMapperBuilder.cbor()
+                .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .build());
+    }
+
+    public EventCborMessageConverter(ObjectMapper cborMapper) {
+        super(cborMapper, EVENT_CBOR);
+        // Un mensaje sin content type nunca se interpreta como CBOR.
+        setStrictContentTypeMatch(true);
+        setSerializedPayloadClass(byte[].class);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Event.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canConvertFrom(Message<?> message, Class<?> targetClass) {
+        return super.canConvertFrom(message, targetClass)
+                && isSupportedVersion(getMimeType(message.getHeaders()));
+    }
+
+    // Spring Cloud Function pasa como pista el tipo genérico del parámetro (p. ej. Event<Integer, NotificationDto>);
+    // la clase base solo resuelve pistas de tipo MethodParameter y leería 'data' como un Map.
+    @Override
+    protected Object convertFromInternal(Message<?> message, Class<?> targetClass, Object conversionHint) {
+        if (!(conversionHint instanceof Type) || !(message.getPayload() instanceof byte[])) {
+            return super.convertFromInternal(message, targetClass, conversionHint);
+        }
+        ObjectMapper objectMapper = getObjectMapper();
+        try {
+            return objectMapper.readValue((byte[]) message.getPayload(), objectMapper.constructType((Type) conversionHint));
+        } catch (IOException ex) {
+            throw new MessageConversionException(message, "No se pudo leer el evento CBOR: " + ex.getMessage(), ex);
+        }
+    }
+
+    static boolean isSupportedVersion(MimeType mimeType) {
+        String version = mimeType != null ? mimeType.getParameter(VERSION_PARAMETER) : null;
+        if (version == null) {
+            return true;
+        }
+        try {
+            int value = Integer.parseInt(version);
+            return value >= 1 && value <= SCHEMA_VERSION;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package bo.edu.ucb.microservices.util.events;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+import bo.edu.ucb.microservices.util.exceptions.EventProcessingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.concurrent.Queues;
+
+/**
+ * Publicador de {@link Event} sobre StreamBridge para servicios reactivos.
+ * <p>
+ * {@link #publish(Event)} no bloquea: deja el evento en una cola acotada y devuelve un Mono que termina cuando
+ * el binder aceptó ese mensaje (o con error si no lo aceptó). Los eventos se agrupan hasta 'batchSize' o
+ * 'linger' y cada lote se envía en un hilo de boundedElastic, así el event loop nunca espera al broker.
+ * Los lotes se envían uno tras otro en el orden de publicación, por lo que el orden por clave se conserva.
+ * Si el flujo de envío se corta por un error inesperado, los eventos que quedaron sin enviar terminan con error
+ * y el publicador se reinicia con una cola nueva; solo {@link #close()} lo detiene.
+ * <p>
+ * Cada mensaje lleva la clave del evento en {@value #PARTITION_KEY_HEADER} (para
+ * {@code producer.partitionKeyExpression: headers['partitionKey']}) y en {@value #KAFKA_KEY_HEADER}
+ * (clave del registro en Kafka). La compresión es del binder: {@code producer.compress: true} en RabbitMQ o
+ * {@code producer.configuration.compression.type} en Kafka, junto con {@code linger.ms} y {@code batch.size}.
+ * Con {@code contentType} {@link EventCborMessageConverter#EVENT_CBOR} el evento viaja en CBOR.
+ * <p>
+ * El Mono termina cuando StreamBridge.send devuelve: con Kafka en modo {@code producer.sync: true} o con
+ * confirmaciones de RabbitMQ eso equivale al ack del broker. No es un componente: cada servicio lo crea como
+ * bean con su binding de salida, por ejemplo {@code new EventPublisher(streamBridge, "notifications-out-0")}.
+ */
+public class EventPublisher implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventPublisher.class);
+
+    public static final String PARTITION_KEY_HEADER = "partitionKey";
+    // Igual a KafkaHeaders.KEY; con RabbitMQ viaja como una cabecera más.
+    public static final String KAFKA_KEY_HEADER = "kafka_messageKey";
+
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    public static final Duration DEFAULT_LINGER = Duration.ofMillis(5);
+    public static final int DEFAULT_MAX_PENDING = 8192;
+
+    private final StreamBridge streamBridge;
+    private final String bindingName;
+    private final MimeType contentType;
+    private final int batchSize;
+    private final Duration linger;
+    private final int maxPending;
+
+    // Varios hilos pueden publicar a la vez; el sink exige emisiones en serie y se reemplaza al reiniciar.
+    private final Object lock = new Object();
+    private Sinks.Many<PendingEvent> pending;
+    private boolean closed;
+
+    public EventPublisher(StreamBridge streamBridge, String bindingName) {
+        this(streamBridge, bindingName, null, DEFAULT_BATCH_SIZE, DEFAULT_LINGER, DEFAULT_MAX_PENDING);
+    }
+
+    /**
+     * @param streamBridge StreamBridge de la aplicación.
+     * @param bindingName  Binding (o destino) de salida.
+     * @param contentType  Content type de los mensajes; null usa el del binding.
+     * @param batchSize    Máximo de eventos por lote.
+     * @param linger       Tiempo máximo que un evento espera a que se complete su lote.
+     * @param maxPending   Eventos que pueden esperar envío; con la cola llena publish termina con error.
+     */
+    public EventPublisher(StreamBridge streamBridge, String bindingName, MimeType contentType,
+                          int batchSize, Duration linger, int maxPending) {
+        if (batchSize < 1 || maxPending < 1 || linger.isNegative() || linger.isZero()) {
+            throw new IllegalArgumentException("batchSize, maxPending y linger deben ser mayores a 0");
+        }
+        this.streamBridge = streamBridge;
+        this.bindingName = bindingName;
+        this.contentType = contentType;
+        this.batchSize = batchSize;
+        this.linger = linger;
+        this.maxPending = maxPending;
+        synchronized (lock) {
+            this.pending = start();
+        }
+    }
+
+    private Sinks.Many<PendingEvent> start() {
+        Sinks.Many<PendingEvent> sink = Sinks.many().unicast().onBackpressureBuffer(Queues.<PendingEvent>get(maxPending).get());
+        sink.asFlux()
+                // Backpressure justo: el linger no emite lotes que concatMap no pidió. Sin él, con un binder lento
+                // los lotes por tiempo llenan la cola de concatMap y el flujo termina por falta de demanda.
+                .bufferTimeout(batchSize, linger, true)
+                .concatMap(batch -> Mono.fromRunnable(() -> sendBatch(batch)).subscribeOn(Schedulers.boundedElastic()))
+                // Si el flujo se corta, los eventos en cola o en lotes sin enviar se descartan: su Mono termina con error.
+                .doOnDiscard(Object.class, this::failDiscarded)
+                .subscribe(null, ex -> {
+                    LOGGER.error("El publicador de {} se detuvo; se reinicia con una cola nueva", bindingName, ex);
+                    restart(sink);
+                });
+        return sink;
+    }
+
+    private void restart(Sinks.Many<PendingEvent> failed) {
+        synchronized (lock) {
+            if (!closed && pending == failed) {
+                pending = start();
+            }
+        }
+    }
+
+    /**
+     * Encola el evento para su envío.
+     * @return Un Mono que termina cuando el binder aceptó el mensaje, o con {@link EventProcessingException}
+     * si la cola está llena, el publicador está cerrado o el binder lo rechazó. El evento se encola al suscribirse.
+     */
+    public Mono<Void> publish(Event<?, ?> event) {
+        return Mono.create(sink -> {
+            PendingEvent pendingEvent = new PendingEvent(event, sink);
+            Sinks.EmitResult result;
+            synchronized (lock) {
+                result = pending.tryEmitNext(pendingEvent);
+                if (!closed && (result == Sinks.EmitResult.FAIL_CANCELLED || result == Sinks.EmitResult.FAIL_TERMINATED)) {
+                    // El flujo se cortó y su callback todavía no reinició el publicador: se reinicia aquí.
+                    restart(pending);
+                    result = pending.tryEmitNext(pendingEvent);
+                }
+            }
+            if (result.isFailure()) {
+                sink.error(new EventProcessingException(result == Sinks.EmitResult.FAIL_OVERFLOW
+                        ? "Cola del publicador de " + bindingName + " llena"
+                        : "El publicador de " + bindingName + " está cerrado"));
+            }
+        });
+    }
+
+    /**
+     * Deja de aceptar eventos; los que ya estaban en cola se envían igual.
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+            pending.tryEmitComplete();
+        }
+    }
+
+    private void failDiscarded(Object discarded) {
+        if (discarded instanceof PendingEvent) {
+            ((PendingEvent) discarded).ack.error(new EventProcessingException(
+                    "El publicador de " + bindingName + " se detuvo antes de enviar el evento"));
+        } else if (discarded instanceof Collection) {
+            for (Object element : (Collection<?>) discarded) {
+                failDiscarded(element);
+            }
+        }
+    }
+
+    private void sendBatch(List<PendingEvent> batch) {
+        for (PendingEvent event : batch) {
+            try {
+                boolean sent = contentType != null
+                        ? streamBridge.send(bindingName, toMessage(event.event), contentType)
+                        : streamBridge.send(bindingName, toMessage(event.event));
+                if (sent) {
+                    event.ack.success();
+                } else {
+                    event.ack.error(new EventProcessingException("El binder no aceptó el evento para " + bindingName));
+                }
+            } catch (RuntimeException ex) {
+                event.ack.error(new EventProcessingException("No se pudo enviar el evento a " + bindingName, ex));
+            }
+        }
+    }
+
+    private static Message<Event<?, ?>> toMessage(Event<?, ?> event) {
+        MessageBuilder<Event<?, ?>> message = MessageBuilder.<Event<?, ?>>withPayload(event);
+        if (event.getKey() != null) {
+            message.setHeader(PARTITION_KEY_HEADER, event.getKey())
+                    .setHeader(KAFKA_KEY_HEADER, String.valueOf(event.getKey()).getBytes(StandardCharsets.UTF_8));
+        }
+        return message.build();
+    }
+
+    private static final class PendingEvent {
+
+        private final Event<?, ?> event;
+        private final MonoSink<Void> ack;
+
+        private PendingEvent(Event<?, ?> event, MonoSink<Void> ack) {
+            this.event = event;
+            this.ack = ack;
+        }
+    }
+}
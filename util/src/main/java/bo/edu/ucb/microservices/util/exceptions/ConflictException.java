@@ -0,0 +1,17 @@
+package bo.edu.ucb.microservices.util.exceptions;
+
+public class ConflictException extends RuntimeException {
+  public ConflictException() {}
+
+  public ConflictException(String message) {
+    super(message);
+  }
+
+  public ConflictException(String message, Throwable cause) {
+    super(message, cause);
+  }
+
+  public ConflictException(Throwable cause) {
+    super(cause);
+  }
+}
@@ -1,10 +1,14 @@
 package bo.edu.ucb.microservices.util.http;
 
+import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.PRECONDITION_FAILED;
 import static org.springframework.http.HttpStatus.UNPROCESSABLE_ENTITY;
 
+import bo.edu.ucb.microservices.util.exceptions.ConflictException;
 import bo.edu.ucb.microservices.util.exceptions.InvalidInputException;
 import bo.edu.ucb.microservices.util.exceptions.NotFoundException;
+import bo.edu.ucb.microservices.util.exceptions.PreconditionFailedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -27,6 +31,21 @@ public class GlobalControllerExceptionHandler {
         return createHttpErrorInfo(NOT_FOUND, exchange.getRequest().getPath().pathWithinApplication().value(), ex.getMessage());
     }
 
+    // ------------------- Manejo PreconditionFailedException -------------------
+    @ResponseStatus(PRECONDITION_FAILED)
+    @ExceptionHandler(PreconditionFailedException.class)
+    public @ResponseBody HttpErrorInfo handlePreconditionFailedException(ServerWebExchange exchange,
+                                                                         PreconditionFailedException ex) {
+        return createHttpErrorInfo(PRECONDITION_FAILED, exchange.getRequest().getPath().pathWithinApplication().value(), ex.getMessage());
+    }
+
+    // ------------------- Manejo ConflictException -------------------
+    @ResponseStatus(CONFLICT)
+    @ExceptionHandler(ConflictException.class)
+    public @ResponseBody HttpErrorInfo handleConflictException(ServerWebExchange exchange, ConflictException ex) {
+        return createHttpErrorInfo(CONFLICT, exchange.getRequest().getPath().pathWithinApplication().value(), ex.getMessage());
+    }
+
     // ------------------- Manejo InvalidInputException -------------------
     @ResponseStatus(UNPROCESSABLE_ENTITY)
     @ExceptionHandler(InvalidInputException.class)